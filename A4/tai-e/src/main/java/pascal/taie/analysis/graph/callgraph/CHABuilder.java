@@ -30,6 +30,7 @@ import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -40,15 +41,18 @@ import java.util.Set;
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
-    private ClassHierarchy hierarchy;
+    private final ClassHierarchy hierarchy;
+
+    CHABuilder() {
+        hierarchy = World.get().getClassHierarchy();
+    }
 
     @Override
     public CallGraph<Invoke, JMethod> build() {
-        hierarchy = World.get().getClassHierarchy();
         return buildCallGraph(World.get().getMainMethod());
     }
 
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    DefaultCallGraph buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         fillCallGraph(callGraph, entry);
@@ -63,26 +67,30 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
     }
 
     /** Iterate the workList and fill the call graph until the list is empty. */
-    private void iterateWorkList(Queue<JMethod> workList, DefaultCallGraph callGraph) {
+    void iterateWorkList(Queue<JMethod> workList, DefaultCallGraph callGraph) {
         while (!workList.isEmpty()) {
             JMethod jMethod = workList.poll();
             if (callGraph.contains(jMethod)) {
                 continue;
             }
             callGraph.addReachableMethod(jMethod);
-            callGraph.callSitesIn(jMethod).forEach(invoke -> {
-                for (JMethod targetMethod : resolve(invoke)) {
-                    callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), invoke, targetMethod));
-                    workList.add(targetMethod);
-                }
-            });
+            callGraph.callSitesIn(jMethod).forEach(invoke ->
+                    processCallSite(invoke, callGraph, workList));
+        }
+    }
+
+    /** Add the edges to the resolved callees of the call site, and the callees to workList. */
+    void processCallSite(Invoke invoke, DefaultCallGraph callGraph, Queue<JMethod> workList) {
+        for (JMethod targetMethod : resolve(invoke)) {
+            callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(invoke), invoke, targetMethod));
+            workList.add(targetMethod);
         }
     }
 
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
-    private Set<JMethod> resolve(Invoke callSite) {
+    Set<JMethod> resolve(Invoke callSite) {
         Set<JMethod> targetMethods = new HashSet<>();
 
         MethodRef methodRef = callSite.getMethodRef();
@@ -90,9 +98,12 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         Subsignature subsignature = methodRef.getSubsignature();
 
         if (callSite.isStatic()) {  // static call
-            targetMethods.add(declaringClass.getDeclaredMethod(subsignature));
+            JMethod staticCallTarget = declaringClass.getDeclaredMethod(subsignature);
+            if (staticCallTarget != null) {
+                targetMethods.add(staticCallTarget);
+            }
         } else if (callSite.isSpecial()) {  // special call
-            JMethod specialCallTarget = dispatch(declaringClass, subsignature);
+            JMethod specialCallTarget = DispatchTable.dispatch(declaringClass, subsignature);
             if (specialCallTarget != null) {
                 targetMethods.add(specialCallTarget);
             }
@@ -106,65 +117,39 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
     }
 
     /**
-     * Fill the targetMethods set with target method of subInterfaces.
+     * Fill the targetMethods set with target methods of all classes
+     * implementing the interface.
      *
      * @param jInterface is an interface.
      */
     private void fillWithAllSubInterfaceMethod(Set<JMethod> targetMethods, JClass jInterface,
             Subsignature subsignature
     ) {
-        for (JClass subInterface : hierarchy.getDirectSubinterfacesOf(jInterface)) {
-            fillWithAllSubInterfaceMethod(targetMethods, subInterface, subsignature);
-        }
-        for (JClass subImplementor : hierarchy.getDirectImplementorsOf(jInterface)) {
-            fillWithAllSubClassMethod(targetMethods, subImplementor, subsignature);
-        }
+        fillWithDispatchedMethods(targetMethods,
+                hierarchy.getAllImplementorsOf(jInterface), subsignature);
     }
 
     /**
-     * Fill the targetMethods set with target method of subInterfaces.
+     * Fill the targetMethods set with target methods of the class and all its subclasses.
      *
      * @param jClass is a class but not interface.
      */
     private void fillWithAllSubClassMethod(Set<JMethod> targetMethods, JClass jClass,
             Subsignature subsignature
     ) {
-        if (jClass == null) {
-            return;
-        }
-
-        JMethod targetMethod = dispatch(jClass, subsignature);
-        if (targetMethods.contains(targetMethod)) {  // avoid the duplicated paths
-            return;
-        }
-
-        if (targetMethod != null) {
-            targetMethods.add(targetMethod);
-        }
-
-        for (JClass subClass : hierarchy.getDirectSubclassesOf(jClass)) {
-            fillWithAllSubClassMethod(targetMethods, subClass, subsignature);
-        }
+        fillWithDispatchedMethods(targetMethods,
+                hierarchy.getAllSubclassesOf(jClass), subsignature);
     }
 
-    /**
-     * Looks up the target method based on given class and method subsignature.
-     *
-     * @return the dispatched target method, or null if no satisfying method
-     * can be found.
-     */
-    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-
-        // base case
-        if (jclass == null) {
-            return null;
-        }
-
-        JMethod declaredMethod = jclass.getDeclaredMethod(subsignature);
-        if (declaredMethod != null && !declaredMethod.isAbstract()) {
-            return declaredMethod;
+    /** Fill the targetMethods set with the methods dispatched on given classes. */
+    private static void fillWithDispatchedMethods(Set<JMethod> targetMethods,
+            Collection<JClass> classes, Subsignature subsignature
+    ) {
+        for (JClass jClass : classes) {
+            JMethod targetMethod = DispatchTable.dispatch(jClass, subsignature);
+            if (targetMethod != null) {
+                targetMethods.add(targetMethod);
+            }
         }
-
-        return dispatch(jclass.getSuperClass(), subsignature);
     }
 }
@@ -0,0 +1,258 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Call graph loaded from {@link CallGraphCache}.
+ * <p>
+ * The call sites are kept as (caller, statement index) pairs, so that
+ * loading the call graph does not build the IR of any method. The call
+ * sites and edges of a method are materialized when they are queried
+ * for the first time, i.e., the IR is built only for the methods whose
+ * call sites (or the callers of whose callees) are actually accessed.
+ * The queries on methods, e.g., {@link #getSuccsOf(JMethod)}, are
+ * answered without materialization.
+ */
+class CachedCallGraph extends AbstractCallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> ids;
+
+    /**
+     * The out edges of methods[i] are at positions
+     * [edgeOffsets[i], edgeOffsets[i + 1]) of the edge arrays.
+     */
+    private final int[] edgeOffsets;
+
+    private final int[] edgeIndexes;
+
+    private final byte[] edgeKinds;
+
+    private final int[] edgeCallees;
+
+    /**
+     * The callers of methods[i] are callerIds[callerOffsets[i]]
+     * to callerIds[callerOffsets[i + 1] - 1].
+     */
+    private final int[] callerOffsets;
+
+    private final int[] callerIds;
+
+    private final boolean[] materialized;
+
+    /**
+     * @param methods     the reachable methods
+     * @param entries     IDs of the entry methods
+     * @param edgeOffsets offsets of the out edges of each method
+     * @param edgeIndexes statement indexes of the call sites of the edges
+     * @param edgeKinds   ordinals of the call kinds of the edges
+     * @param edgeCallees IDs of the callees of the edges
+     */
+    CachedCallGraph(JMethod[] methods, int[] entries, int[] edgeOffsets,
+                    int[] edgeIndexes, byte[] edgeKinds, int[] edgeCallees) {
+        this.methods = methods;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeIndexes = edgeIndexes;
+        this.edgeKinds = edgeKinds;
+        this.edgeCallees = edgeCallees;
+        ids = Maps.newMap(methods.length);
+        for (JMethod method : methods) {
+            ids.put(method, ids.size());
+            reachableMethods.add(method);
+        }
+        for (int entry : entries) {
+            entryMethods.add(methods[entry]);
+        }
+        // build the reverse (callee-to-caller) arrays
+        callerOffsets = new int[methods.length + 1];
+        for (int callee : edgeCallees) {
+            ++callerOffsets[callee + 1];
+        }
+        for (int i = 0; i < methods.length; ++i) {
+            callerOffsets[i + 1] += callerOffsets[i];
+        }
+        callerIds = new int[edgeCallees.length];
+        int[] next = callerOffsets.clone();
+        for (int caller = 0; caller < methods.length; ++caller) {
+            for (int i = edgeOffsets[caller]; i < edgeOffsets[caller + 1]; ++i) {
+                callerIds[next[edgeCallees[i]]++] = caller;
+            }
+        }
+        materialized = new boolean[methods.length];
+    }
+
+    /**
+     * Builds the call sites and the out edges of given method from its IR.
+     */
+    private void materialize(int id) {
+        if (materialized[id]) {
+            return;
+        }
+        materialized[id] = true;
+        JMethod caller = methods[id];
+        if (caller.isAbstract()) {
+            return;
+        }
+        IR ir = caller.getIR();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof Invoke invoke) {
+                callSiteToContainer.put(invoke, caller);
+                callSitesIn.put(caller, invoke);
+            }
+        }
+        for (int i = edgeOffsets[id]; i < edgeOffsets[id + 1]; ++i) {
+            int index = edgeIndexes[i];
+            if (index >= ir.getStmts().size() ||
+                    !(ir.getStmt(index) instanceof Invoke callSite)) {
+                throw new AnalysisException("Call graph cache mismatches the IR of "
+                        + caller + " at statement " + index);
+            }
+            JMethod callee = methods[edgeCallees[i]];
+            Edge<Invoke, JMethod> edge = new Edge<>(KINDS[edgeKinds[i]], callSite, callee);
+            callSiteToEdges.put(callSite, edge);
+            calleeToEdges.put(callee, edge);
+        }
+    }
+
+    private void materialize(JMethod method) {
+        Integer id = ids.get(method);
+        if (id != null) {
+            materialize(id);
+        }
+    }
+
+    private void materializeCallersOf(JMethod callee) {
+        Integer id = ids.get(callee);
+        if (id != null) {
+            for (int i = callerOffsets[id]; i < callerOffsets[id + 1]; ++i) {
+                materialize(callerIds[i]);
+            }
+        }
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        materializeCallersOf(callee);
+        return super.getCallersOf(callee);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        materialize(callSite.getContainer());
+        return super.getCalleesOf(callSite);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        materialize(method);
+        return super.getCallSitesIn(method);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        materialize(callSite.getContainer());
+        return super.edgesOutOf(callSite);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        materializeCallersOf(method);
+        return super.edgesInTo(method);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        for (int id = 0; id < methods.length; ++id) {
+            materialize(id);
+        }
+        return super.edges();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edgeCallees.length;
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            return Set.of();
+        }
+        Set<JMethod> preds = Sets.newHybridSet();
+        for (int i = callerOffsets[id]; i < callerOffsets[id + 1]; ++i) {
+            preds.add(methods[callerIds[i]]);
+        }
+        return Collections.unmodifiableSet(preds);
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            return Set.of();
+        }
+        Set<JMethod> succs = Sets.newHybridSet();
+        for (int i = edgeOffsets[id]; i < edgeOffsets[id + 1]; ++i) {
+            succs.add(methods[edgeCallees[i]]);
+        }
+        return Collections.unmodifiableSet(succs);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+}
@@ -107,4 +107,13 @@ public interface CallGraph<CallSite, Method> extends Graph<Method>, StmtResult<S
      * @return true if this call graph contains the given method, otherwise false.
      */
     boolean contains(Method method);
+
+    /**
+     * @return true if the given method is reachable but its call sites
+     * have not been resolved, e.g., a library method in a call graph
+     * built for partial program, otherwise false.
+     */
+    default boolean isStub(Method method) {
+        return false;
+    }
 }
@@ -22,30 +22,25 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.ConfigException;
-import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JMethod;
 
-import java.util.Collection;
-import java.util.Comparator;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class CallGraphBuilder extends ProgramAnalysis {
 
     public static final String ID = "cg";
 
-    private static final Logger logger = LogManager.getLogger(CallGraphBuilder.class);
-
-    /**
-     * Separator between call site and its callees.
-     */
-    private static final String SEP = " -> ";
-
     private final String algorithm;
 
     public CallGraphBuilder(AnalysisConfig config) {
@@ -53,62 +48,124 @@ public class CallGraphBuilder extends ProgramAnalysis {
         algorithm = config.getOptions().getString("algorithm");
     }
 
+    /**
+     * Builds the call graph. If option "cache" is given, the call graph is
+     * loaded from the cache file when the inputs are unchanged, otherwise
+     * the built call graph is stored to the cache file. If option "freeze"
+     * is true (by default), the built call graph is converted to an immutable
+     * {@link FrozenCallGraph}; the call graph loaded from the cache is not
+     * frozen, as it is materialized lazily.
+     * If option "incremental" is true or the partial-program mode is enabled,
+     * neither the cache nor the freezing is applied, as the call graph is
+     * updated in place by {@link IncrementalCHABuilder} or
+     * {@link LibraryCHABuilder}.
+     */
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
+        boolean inPlace = getOptions().getBooleanOrDefault("incremental", false)
+                || isPartialProgram();
+        String cache = getOptions().getString("cache");
+        CallGraphCache callGraphCache = cache != null && !inPlace ?
+                new CallGraphCache(Path.of(cache), getOptions()) : null;
+        Map<String, Long> phaseTimes = new LinkedHashMap<>();
+        CallGraph<Invoke, JMethod> callGraph = callGraphCache != null ?
+                time(phaseTimes, "cache-load", callGraphCache::load) : null;
+        if (callGraph == null) {
+            callGraph = time(phaseTimes, "build", this::build);
+            if (callGraphCache != null) {
+                CallGraph<Invoke, JMethod> result = callGraph;
+                time(phaseTimes, "cache-store", () -> {
+                    callGraphCache.store(result);
+                    return null;
+                });
+            }
+        }
+        if (!inPlace && getOptions().getBooleanOrDefault("freeze", true) &&
+                callGraph instanceof DefaultCallGraph defaultCallGraph) {
+            callGraph = time(phaseTimes, "freeze", defaultCallGraph::freeze);
+        }
+        takeAction(callGraph, phaseTimes);
+        return callGraph;
+    }
+
+    /**
+     * Runs given phase, and records its time (in milliseconds) in phaseTimes.
+     */
+    private static <T> T time(Map<String, Long> phaseTimes, String phase,
+                              Supplier<T> supplier) {
+        long start = System.nanoTime();
+        T result = supplier.get();
+        phaseTimes.put(phase, (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private CallGraph<Invoke, JMethod> build() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            if (isPartialProgram()) {
+                builder = new LibraryCHABuilder(
+                        "public".equals(getOptions().getString("entries")),
+                        getScope());
+            } else if (getOptions().getBooleanOrDefault("incremental", false)) {
+                builder = new IncrementalCHABuilder();
+                World.get().storeResult(IncrementalCHABuilder.ID, builder);
+            } else if (getOptions().getBooleanOrDefault("parallel", false)) {
+                builder = new ParallelCHABuilder();
+            } else {
+                builder = new CHABuilder();
+            }
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
-        takeAction(callGraph);
         return callGraph;
     }
 
-    private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
+    /**
+     * @return true if the call graph is built for a partial program,
+     * i.e., the entries are the public methods, or the scope is given.
+     */
+    private boolean isPartialProgram() {
+        return "public".equals(getOptions().getString("entries"))
+                || getOptions().get("scope") != null;
+    }
+
+    /**
+     * @return the prefixes of the names of classes in scope,
+     * or null if the scope consists of the application classes.
+     */
+    private @Nullable List<String> getScope() {
+        Object scope = getOptions().get("scope");
+        if (scope == null || scope.equals("app")) {
+            return null;
+        } else if (scope instanceof String prefix) {
+            return List.of(prefix);
+        } else if (scope instanceof List<?> prefixes) {
+            return prefixes.stream().map(Object::toString).toList();
+        } else {
+            throw new ConfigException("Illegal scope: " + scope);
+        }
+    }
+
+    private void takeAction(CallGraph<Invoke, JMethod> callGraph,
+                            Map<String, Long> phaseTimes) {
         String action = getOptions().getString("action");
         if (action == null) {
             return;
         }
         if (action.equals("dump")) {
-            logCallGraph(callGraph);
+            new CallGraphStatistics(callGraph, phaseTimes, 0).log();
             String file = getOptions().getString("file");
             CallGraphs.dumpCallGraph(callGraph, file);
+        } else if (action.equals("stats")) {
+            CallGraphStatistics statistics = new CallGraphStatistics(
+                    callGraph, phaseTimes, getOptions().getInt("top"));
+            statistics.log();
+            statistics.dump(getOptions().getString("file"));
         }
     }
-
-    static void logCallGraph(CallGraph<Invoke, JMethod> callGraph) {
-        Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
-        logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
-        logger.info("---------- Reachable methods: ----------");
-        callGraph.reachableMethods()
-                .sorted(cmp)
-                .forEach(logger::info);
-        logger.info("\n#call graph edges: {}", callGraph.getNumberOfEdges());
-        logger.info("---------- Call graph edges: ----------");
-        callGraph.reachableMethods()
-                .sorted(cmp) // sort reachable methods
-                .forEach(caller ->
-                        callGraph.callSitesIn(caller)
-                                .sorted(Comparator.comparing(Invoke::getIndex))
-                                .filter(callSite -> !callGraph.getCalleesOf(callSite).isEmpty())
-                                .forEach(callSite ->
-                                        logger.info(toString(callSite) + SEP +
-                                                toString(callGraph.getCalleesOf(callSite)))));
-        logger.info("----------------------------------------");
-    }
-
-    private static String toString(Invoke invoke) {
-        return invoke.getContainer() + IRPrinter.toString(invoke);
-    }
-
-    private static String toString(Collection<JMethod> methods) {
-        return methods.stream()
-                .sorted(Comparator.comparing(JMethod::toString))
-                .toList()
-                .toString();
-    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.Options;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of call graph.
+ * <p>
+ * The call graph is stored in a compact binary format: the reachable
+ * methods are stored once as signatures and referred to by their IDs,
+ * and each call site is represented by the ID of its container and its
+ * statement index in the IR of the container. The file starts with
+ * the fingerprint of the inputs, i.e., the entries of class path (their
+ * paths, sizes and modification times), the main class, the Java version
+ * and the options of call graph construction. The cached call graph is
+ * loaded (via memory-mapped file) only if the fingerprint matches, and
+ * the IR of the methods is not built when loading, see {@link CachedCallGraph}.
+ * <p>
+ * File format (big-endian):
+ * <pre>
+ * magic:int fingerprint:byte[32]
+ * #methods:int (length:int utf8:byte[length])*
+ * #entries:int (methodId:int)*
+ * #edges:int (callerId:int stmtIndex:int kind:byte calleeId:int)*
+ * </pre>
+ */
+class CallGraphCache {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphCache.class);
+
+    private static final int MAGIC = 0x54434731; // "TCG1"
+
+    private final Path file;
+
+    private final byte[] fingerprint;
+
+    CallGraphCache(Path file, AnalysisOptions cgOptions) {
+        this.file = file;
+        this.fingerprint = computeFingerprint(World.get().getOptions(), cgOptions);
+    }
+
+    /**
+     * @return the cached call graph, or null if the cache file is absent,
+     * stale (fingerprint mismatches), or cannot be read.
+     */
+    CallGraph<Invoke, JMethod> load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                return null;
+            }
+            byte[] cachedFingerprint = new byte[fingerprint.length];
+            buffer.get(cachedFingerprint);
+            if (!Arrays.equals(cachedFingerprint, fingerprint)) {
+                logger.info("Call graph cache {} is stale", file);
+                return null;
+            }
+            CallGraph<Invoke, JMethod> callGraph = read(buffer);
+            if (callGraph != null) {
+                logger.info("Loaded call graph from cache {}", file);
+            }
+            return callGraph;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load call graph cache {}: {}", file, e);
+            return null;
+        }
+    }
+
+    private static CallGraph<Invoke, JMethod> read(ByteBuffer buffer) {
+        JMethod[] methods = new JMethod[buffer.getInt()];
+        for (int i = 0; i < methods.length; ++i) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            methods[i] = getMethod(new String(bytes, StandardCharsets.UTF_8));
+            if (methods[i] == null) { // the program changed
+                return null;
+            }
+        }
+        int[] entries = new int[buffer.getInt()];
+        for (int i = 0; i < entries.length; ++i) {
+            entries[i] = buffer.getInt();
+        }
+        int edges = buffer.getInt();
+        int[] edgeOffsets = new int[methods.length + 1];
+        int[] edgeIndexes = new int[edges];
+        byte[] edgeKinds = new byte[edges];
+        int[] edgeCallees = new int[edges];
+        int lastCaller = 0;
+        for (int i = 0; i < edges; ++i) {
+            int caller = buffer.getInt();
+            if (caller < lastCaller || caller >= methods.length) {
+                // edges must be grouped by callers
+                return null;
+            }
+            lastCaller = caller;
+            ++edgeOffsets[caller + 1];
+            edgeIndexes[i] = buffer.getInt();
+            edgeKinds[i] = buffer.get();
+            edgeCallees[i] = buffer.getInt();
+            if (edgeKinds[i] < 0 || edgeKinds[i] >= CallKind.values().length ||
+                    edgeCallees[i] < 0 || edgeCallees[i] >= methods.length) {
+                return null;
+            }
+        }
+        for (int i = 0; i < methods.length; ++i) {
+            edgeOffsets[i + 1] += edgeOffsets[i];
+        }
+        return new CachedCallGraph(methods, entries,
+                edgeOffsets, edgeIndexes, edgeKinds, edgeCallees);
+    }
+
+    /** @return the method of given signature, or null if it is absent. */
+    private static JMethod getMethod(String signature) {
+        JClass jclass = World.get().getClassHierarchy()
+                .getClass(StringReps.getClassNameOf(signature));
+        if (jclass == null) {
+            return null;
+        }
+        return jclass.getDeclaredMethod(
+                Subsignature.get(StringReps.getSubsignatureOf(signature)));
+    }
+
+    /** Writes given call graph to the cache file. */
+    void store(CallGraph<Invoke, JMethod> callGraph) {
+        List<JMethod> methods = callGraph.reachableMethods()
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .toList();
+        Map<JMethod, Integer> ids = Maps.newMap(methods.size());
+        for (JMethod method : methods) {
+            ids.put(method, ids.size());
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // the cache file may still be mapped by a previous load,
+            // thus it is replaced by a new file instead of being rewritten
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.write(fingerprint);
+                out.writeInt(methods.size());
+                for (JMethod method : methods) {
+                    byte[] bytes = method.getSignature().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                List<JMethod> entries = callGraph.entryMethods().toList();
+                out.writeInt(entries.size());
+                for (JMethod entry : entries) {
+                    out.writeInt(ids.get(entry));
+                }
+                List<Edge<Invoke, JMethod>> edges = methods.stream()
+                        .flatMap(callGraph::callSitesIn)
+                        .flatMap(callGraph::edgesOutOf)
+                        .toList();
+                out.writeInt(edges.size());
+                for (Edge<Invoke, JMethod> edge : edges) {
+                    Invoke callSite = edge.getCallSite();
+                    out.writeInt(ids.get(callGraph.getContainerOf(callSite)));
+                    out.writeInt(callSite.getIndex());
+                    out.writeByte(edge.getKind().ordinal());
+                    out.writeInt(ids.get(edge.getCallee()));
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("Stored call graph to cache {}", file);
+        } catch (IOException e) {
+            logger.warn("Failed to store call graph cache {}: {}", file, e);
+        }
+    }
+
+    /**
+     * @return SHA-256 digest of the class path entries, the main class,
+     * the Java version and the options of call graph construction.
+     */
+    private static byte[] computeFingerprint(Options options, AnalysisOptions cgOptions) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException(e);
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(String.valueOf(options.getMainClass()));
+        parts.add(options.getJavaVersion() + "/" + options.isPrependJVM());
+        parts.add(cgOptions.getString("algorithm") + "/" +
+                cgOptions.getBooleanOrDefault("parallel", false));
+        String classPath = options.getClassPath();
+        if (classPath != null) {
+            for (String entry : classPath.split(File.pathSeparator)) {
+                parts.addAll(describe(Path.of(entry)));
+            }
+        }
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return digest.digest();
+    }
+
+    /** @return the paths, sizes and modification times of given file, or files in given directory. */
+    private static List<String> describe(Path entry) {
+        if (!Files.exists(entry)) {
+            return List.of(entry + "|absent");
+        }
+        try (Stream<Path> paths = Files.walk(entry)) {
+            return paths.filter(Files::isRegularFile)
+                    .sorted()
+                    .map(CallGraphCache::describeFile)
+                    .toList();
+        } catch (IOException e) {
+            return List.of(entry + "|unreadable");
+        }
+    }
+
+    private static String describeFile(Path path) {
+        File f = path.toFile();
+        return path + "|" + f.length() + "|" + f.lastModified();
+    }
+}
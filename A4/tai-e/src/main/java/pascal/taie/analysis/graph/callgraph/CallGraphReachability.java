@@ -0,0 +1,213 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JMethod;
+
+import java.util.BitSet;
+
+/**
+ * Index for reachability queries on call graph, i.e., whether a method
+ * can transitively call another method.
+ * <p>
+ * The index is built over the condensation DAG of the call graph
+ * ({@link CallGraphSCC}), and labels each component with the intervals
+ * of {@link #TRAVERSALS} depth-first traversals in different child orders,
+ * as in GRAIL (Yildirim et al., VLDB 2010). Each label takes constant
+ * space, so the index takes memory linear in the number of components.
+ * A query is answered by the labels in constant time, except when
+ * the labels cannot decide it, then a DFS pruned by the labels
+ * (with a bitset of visited components) is performed.
+ */
+public class CallGraphReachability {
+
+    /**
+     * Number of traversals, i.e., number of intervals of each component.
+     */
+    private static final int TRAVERSALS = 2;
+
+    private final CallGraphSCC scc;
+
+    /**
+     * Post-order rank of each component in each traversal.
+     */
+    private final int[][] ranks;
+
+    /**
+     * Minimum rank of the components reachable from each component
+     * in each traversal. The interval of component c in traversal i
+     * is [lows[i][c], ranks[i][c]].
+     */
+    private final int[][] lows;
+
+    /**
+     * Pre-order number of each component in the first traversal, which
+     * together with its rank identifies the descendants in the DFS tree.
+     */
+    private final int[] preorders;
+
+    public CallGraphReachability(CallGraphSCC scc) {
+        this.scc = scc;
+        int n = scc.getNumberOfComponents();
+        ranks = new int[TRAVERSALS][n];
+        lows = new int[TRAVERSALS][n];
+        preorders = new int[n];
+        for (int i = 0; i < TRAVERSALS; ++i) {
+            label(i, i % 2 == 1);
+        }
+    }
+
+    /**
+     * Labels the components by an iterative DFS which starts from the roots
+     * (components without callers), and visits the callees in forward or
+     * reversed order.
+     */
+    private void label(int traversal, boolean reversed) {
+        int n = scc.getNumberOfComponents();
+        int[] rank = ranks[traversal];
+        int[] low = lows[traversal];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        // position of next callee of each component on stack
+        int[] next = new int[n];
+        int sp = 0;
+        int preorder = 0;
+        int postorder = 0;
+        for (int r = 0; r < n; ++r) {
+            // components are numbered bottom-up, so callers come last
+            int root = reversed ? r : n - 1 - r;
+            if (visited[root] || scc.getPredsStart(root) != scc.getPredsEnd(root)) {
+                continue;
+            }
+            visited[root] = true;
+            if (traversal == 0) {
+                preorders[root] = preorder++;
+            }
+            low[root] = Integer.MAX_VALUE;
+            next[root] = 0;
+            stack[sp++] = root;
+            while (sp > 0) {
+                int c = stack[sp - 1];
+                int start = scc.getSuccsStart(c);
+                int size = scc.getSuccsEnd(c) - start;
+                if (next[c] < size) {
+                    int k = next[c]++;
+                    int d = scc.getSucc(reversed ? start + size - 1 - k : start + k);
+                    if (!visited[d]) {
+                        visited[d] = true;
+                        if (traversal == 0) {
+                            preorders[d] = preorder++;
+                        }
+                        low[d] = Integer.MAX_VALUE;
+                        next[d] = 0;
+                        stack[sp++] = d;
+                    } else {
+                        low[c] = Math.min(low[c], low[d]);
+                    }
+                } else {
+                    --sp;
+                    rank[c] = postorder++;
+                    low[c] = Math.min(low[c], rank[c]);
+                    if (sp > 0) {
+                        int p = stack[sp - 1];
+                        low[p] = Math.min(low[p], low[c]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if method from can reach method to via call edges.
+     * Every method in the call graph reaches itself.
+     */
+    public boolean reaches(JMethod from, JMethod to) {
+        int source = scc.getComponentOf(from);
+        int target = scc.getComponentOf(to);
+        if (source == -1 || target == -1) {
+            return false;
+        }
+        return reachesComponent(source, target);
+    }
+
+    /**
+     * @return true if component source can reach component target
+     * in the condensation DAG.
+     */
+    public boolean reachesComponent(int source, int target) {
+        if (source == target) {
+            return true;
+        }
+        // components are numbered bottom-up, so a callee has smaller number
+        if (target > source || !mayReach(source, target)) {
+            return false;
+        }
+        if (isTreeDescendant(source, target)) {
+            return true;
+        }
+        // labels cannot decide, fall back to DFS pruned by the labels
+        BitSet visited = new BitSet(source + 1);
+        int[] stack = new int[source + 1];
+        int sp = 0;
+        stack[sp++] = source;
+        visited.set(source);
+        while (sp > 0) {
+            int c = stack[--sp];
+            for (int i = scc.getSuccsStart(c); i < scc.getSuccsEnd(c); ++i) {
+                int d = scc.getSucc(i);
+                if (d == target || isTreeDescendant(d, target)) {
+                    return true;
+                }
+                if (d > target && !visited.get(d) && mayReach(d, target)) {
+                    visited.set(d);
+                    stack[sp++] = d;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if source cannot reach target according to the labels,
+     * i.e., the interval of target is not contained by the interval
+     * of source in some traversal.
+     */
+    boolean mayReach(int source, int target) {
+        for (int i = 0; i < TRAVERSALS; ++i) {
+            if (lows[i][target] < lows[i][source]
+                    || ranks[i][target] > ranks[i][source]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if target is a descendant of source in the DFS tree of
+     * the first traversal, which implies that source reaches target.
+     */
+    boolean isTreeDescendant(int source, int target) {
+        return preorders[source] <= preorders[target]
+                && ranks[0][target] <= ranks[0][source];
+    }
+}
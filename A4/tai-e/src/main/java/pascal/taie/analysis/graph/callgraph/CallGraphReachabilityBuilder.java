@@ -0,0 +1,47 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.config.AnalysisConfig;
+
+/**
+ * Builds the reachability index of the call graph once, so that
+ * the analyses which query reachability between methods can share
+ * the result by {@link #ID}.
+ */
+public class CallGraphReachabilityBuilder extends ProgramAnalysis {
+
+    public static final String ID = "cg-reach";
+
+    public CallGraphReachabilityBuilder(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public CallGraphReachability analyze() {
+        CallGraphSCC scc = World.get().getResult(CallGraphSCCBuilder.ID);
+        return new CallGraphReachability(scc);
+    }
+}
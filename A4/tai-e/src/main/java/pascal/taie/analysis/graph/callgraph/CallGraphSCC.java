@@ -0,0 +1,325 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strongly connected components (SCCs) of a call graph and the
+ * condensation DAG over them.
+ * <p>
+ * The SCCs are computed by an iterative version of Tarjan's algorithm,
+ * which keeps the DFS state in arrays instead of the Java call stack,
+ * so that deep call chains of large programs do not overflow the stack.
+ * <p>
+ * The components are numbered in bottom-up order, i.e., if a method in
+ * component {@code c1} calls a method in another component {@code c2},
+ * then {@code c2 < c1}. Hence, iterating the components from 0 visits
+ * the callees before their callers, which is the order required by
+ * the bottom-up (summary-based) analyses.
+ */
+public class CallGraphSCC {
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> ids;
+
+    /**
+     * Component of each method.
+     */
+    private final int[] componentOf;
+
+    /**
+     * Methods of component {@code c} are members[memberOffsets[c]]
+     * to members[memberOffsets[c + 1]] (exclusive).
+     */
+    private final int[] memberOffsets;
+
+    private final int[] members;
+
+    private final boolean[] recursive;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final List<List<JMethod>> bottomUp;
+
+    private final List<List<JMethod>> topDown;
+
+    public CallGraphSCC(CallGraph<?, JMethod> callGraph) {
+        methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        int n = methods.length;
+        ids = Maps.newMap(n);
+        for (JMethod method : methods) {
+            ids.put(method, ids.size());
+        }
+        // adjacency of methods in CSR form
+        int[] offsets = new int[n + 1];
+        List<int[]> calleesOf = new ArrayList<>(n);
+        boolean[] selfLoop = new boolean[n];
+        for (int i = 0; i < n; ++i) {
+            int[] callees = callGraph.getCalleesOfM(methods[i])
+                    .stream()
+                    .filter(ids::containsKey)
+                    .mapToInt(ids::get)
+                    .toArray();
+            for (int callee : callees) {
+                if (callee == i) {
+                    selfLoop[i] = true;
+                }
+            }
+            calleesOf.add(callees);
+            offsets[i + 1] = offsets[i] + callees.length;
+        }
+        int[] targets = new int[offsets[n]];
+        for (int i = 0; i < n; ++i) {
+            int[] callees = calleesOf.get(i);
+            System.arraycopy(callees, 0, targets, offsets[i], callees.length);
+        }
+        // compute components
+        componentOf = new int[n];
+        members = new int[n];
+        int nComponents = computeSCCs(n, offsets, targets);
+        memberOffsets = new int[nComponents + 1];
+        for (int i = 0; i < n; ++i) {
+            ++memberOffsets[componentOf[i] + 1];
+        }
+        for (int c = 0; c < nComponents; ++c) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] fill = Arrays.copyOf(memberOffsets, nComponents);
+        for (int i = 0; i < n; ++i) {
+            members[fill[componentOf[i]]++] = i;
+        }
+        recursive = new boolean[nComponents];
+        for (int c = 0; c < nComponents; ++c) {
+            recursive[c] = memberOffsets[c + 1] - memberOffsets[c] > 1
+                    || selfLoop[members[memberOffsets[c]]];
+        }
+        // build condensation DAG
+        succOffsets = new int[nComponents + 1];
+        int[] lastSeen = new int[nComponents];
+        Arrays.fill(lastSeen, -1);
+        int[] buffer = new int[targets.length];
+        int nEdges = 0;
+        for (int c = 0; c < nComponents; ++c) {
+            for (int p = memberOffsets[c]; p < memberOffsets[c + 1]; ++p) {
+                int m = members[p];
+                for (int e = offsets[m]; e < offsets[m + 1]; ++e) {
+                    int target = componentOf[targets[e]];
+                    if (target != c && lastSeen[target] != c) {
+                        lastSeen[target] = c;
+                        buffer[nEdges++] = target;
+                    }
+                }
+            }
+            succOffsets[c + 1] = nEdges;
+        }
+        succs = Arrays.copyOf(buffer, nEdges);
+        predOffsets = new int[nComponents + 1];
+        for (int succ : succs) {
+            ++predOffsets[succ + 1];
+        }
+        for (int c = 0; c < nComponents; ++c) {
+            predOffsets[c + 1] += predOffsets[c];
+        }
+        preds = new int[nEdges];
+        fill = Arrays.copyOf(predOffsets, nComponents);
+        for (int c = 0; c < nComponents; ++c) {
+            for (int e = succOffsets[c]; e < succOffsets[c + 1]; ++e) {
+                preds[fill[succs[e]]++] = c;
+            }
+        }
+        // cache component lists in both orders
+        List<List<JMethod>> components = new ArrayList<>(nComponents);
+        for (int c = 0; c < nComponents; ++c) {
+            List<JMethod> component = new ArrayList<>(
+                    memberOffsets[c + 1] - memberOffsets[c]);
+            for (int p = memberOffsets[c]; p < memberOffsets[c + 1]; ++p) {
+                component.add(methods[members[p]]);
+            }
+            components.add(Collections.unmodifiableList(component));
+        }
+        bottomUp = Collections.unmodifiableList(components);
+        List<List<JMethod>> reversed = new ArrayList<>(components);
+        Collections.reverse(reversed);
+        topDown = Collections.unmodifiableList(reversed);
+    }
+
+    /**
+     * Iterative Tarjan's algorithm. Fills {@link #componentOf} and
+     * returns the number of components. Tarjan's algorithm completes
+     * the components in reverse topological order, which is exactly
+     * the bottom-up order.
+     */
+    private int computeSCCs(int n, int[] offsets, int[] targets) {
+        int[] index = new int[n];
+        Arrays.fill(index, -1);
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        // stack of Tarjan's algorithm
+        int[] stack = new int[n];
+        int sp = 0;
+        // explicit DFS stack: node and position of its next out-edge
+        int[] dfsNodes = new int[n];
+        int[] dfsEdges = new int[n];
+        int dsp = 0;
+        int counter = 0;
+        int nComponents = 0;
+        for (int root = 0; root < n; ++root) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            dfsNodes[dsp] = root;
+            dfsEdges[dsp++] = offsets[root];
+            while (dsp > 0) {
+                int v = dfsNodes[dsp - 1];
+                if (dfsEdges[dsp - 1] < offsets[v + 1]) {
+                    int w = targets[dfsEdges[dsp - 1]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        dfsNodes[dsp] = w;
+                        dfsEdges[dsp++] = offsets[w];
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    --dsp;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            onStack[w] = false;
+                            componentOf[w] = nComponents;
+                        } while (w != v);
+                        ++nComponents;
+                    }
+                    if (dsp > 0) {
+                        int u = dfsNodes[dsp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+        return nComponents;
+    }
+
+    public int getNumberOfComponents() {
+        return bottomUp.size();
+    }
+
+    /**
+     * @return the component containing given method, or -1 if the method
+     * is not in the call graph.
+     */
+    public int getComponentOf(JMethod method) {
+        Integer id = ids.get(method);
+        return id != null ? componentOf[id] : -1;
+    }
+
+    public List<JMethod> getMethodsOf(int component) {
+        return bottomUp.get(component);
+    }
+
+    /**
+     * @return true if given component contains a cycle, i.e., it has
+     * more than one method, or its only method calls itself.
+     */
+    public boolean isRecursive(int component) {
+        return recursive[component];
+    }
+
+    public boolean isRecursive(JMethod method) {
+        int component = getComponentOf(method);
+        return component != -1 && recursive[component];
+    }
+
+    // ---------- condensation DAG ----------
+
+    public int getSuccsStart(int component) {
+        return succOffsets[component];
+    }
+
+    public int getSuccsEnd(int component) {
+        return succOffsets[component + 1];
+    }
+
+    /**
+     * @return the callee component at given position of the successor array.
+     */
+    public int getSucc(int pos) {
+        return succs[pos];
+    }
+
+    public int getPredsStart(int component) {
+        return predOffsets[component];
+    }
+
+    public int getPredsEnd(int component) {
+        return predOffsets[component + 1];
+    }
+
+    /**
+     * @return the caller component at given position of the predecessor array.
+     */
+    public int getPred(int pos) {
+        return preds[pos];
+    }
+
+    public int getNumberOfDAGEdges() {
+        return succs.length;
+    }
+
+    // ---------- orders ----------
+
+    /**
+     * @return the components in bottom-up order, i.e., callees first.
+     */
+    public List<List<JMethod>> bottomUp() {
+        return bottomUp;
+    }
+
+    /**
+     * @return the components in top-down order, i.e., callers first.
+     */
+    public List<List<JMethod>> topDown() {
+        return topDown;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Computes the SCCs of the call graph once, so that the analyses
+ * which need them can share the result by {@link #ID}.
+ */
+public class CallGraphSCCBuilder extends ProgramAnalysis {
+
+    public static final String ID = "cg-scc";
+
+    private static final Logger logger = LogManager.getLogger(CallGraphSCCBuilder.class);
+
+    public CallGraphSCCBuilder(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public CallGraphSCC analyze() {
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        CallGraphSCC scc = new CallGraphSCC(callGraph);
+        logger.info("#call graph SCCs: {}, #recursive SCCs: {}",
+                scc.getNumberOfComponents(),
+                scc.bottomUp().stream().filter(c -> scc.isRecursive(c.get(0))).count());
+        return scc;
+    }
+}
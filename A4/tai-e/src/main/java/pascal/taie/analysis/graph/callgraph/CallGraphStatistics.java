@@ -0,0 +1,194 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Statistics of a call graph, which show the call sites that blow up
+ * the cost of the analyses based on the call graph.
+ * <ul>
+ *     <li>histogram of the number of callees (fan-out) of call sites,
+ *     for each {@link CallKind};</li>
+ *     <li>the top-N call sites with the most callees;</li>
+ *     <li>number of reachable methods in each package;</li>
+ *     <li>time of each phase of call graph construction.</li>
+ * </ul>
+ * All statistics are computed in a single pass over the call graph.
+ */
+class CallGraphStatistics {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphStatistics.class);
+
+    /**
+     * Call site and its number of callees.
+     */
+    private record CallSiteFanOut(Invoke callSite, int callees) {
+    }
+
+    private final int reachableMethods;
+
+    private final int edges;
+
+    private int callSites;
+
+    /**
+     * Number of reachable methods whose call sites are not resolved,
+     * see {@link CallGraph#isStub(Object)}.
+     */
+    private int stubs;
+
+    /**
+     * Map from call kind to the histogram: fan-out -> number of call sites.
+     */
+    private final Map<CallKind, SortedMap<Integer, Integer>> fanOuts =
+            new EnumMap<>(CallKind.class);
+
+    private final List<CallSiteFanOut> megamorphicCallSites;
+
+    private final SortedMap<String, Integer> packageMethods = new TreeMap<>();
+
+    /**
+     * Map from phase name to its time in milliseconds.
+     */
+    private final Map<String, Long> phaseTimes;
+
+    CallGraphStatistics(CallGraph<Invoke, JMethod> callGraph,
+                        Map<String, Long> phaseTimes, int topN) {
+        this.reachableMethods = callGraph.getNumberOfMethods();
+        this.edges = callGraph.getNumberOfEdges();
+        this.phaseTimes = phaseTimes;
+        // min-heap of current top-N call sites
+        Comparator<CallSiteFanOut> cmp = Comparator.comparingInt(CallSiteFanOut::callees);
+        PriorityQueue<CallSiteFanOut> top = new PriorityQueue<>(cmp);
+        callGraph.reachableMethods().forEach(method -> {
+            packageMethods.merge(getPackageName(method), 1, Integer::sum);
+            if (callGraph.isStub(method)) {
+                // do not expand the stubs for the statistics
+                ++stubs;
+                return;
+            }
+            callGraph.callSitesIn(method).forEach(callSite -> {
+                ++callSites;
+                int fanOut = callGraph.getCalleesOf(callSite).size();
+                fanOuts.computeIfAbsent(CallGraphs.getCallKind(callSite),
+                                k -> new TreeMap<>())
+                        .merge(fanOut, 1, Integer::sum);
+                if (topN > 0 && fanOut > 1) {
+                    if (top.size() < topN) {
+                        top.add(new CallSiteFanOut(callSite, fanOut));
+                    } else if (top.peek().callees() < fanOut) {
+                        top.poll();
+                        top.add(new CallSiteFanOut(callSite, fanOut));
+                    }
+                }
+            });
+        });
+        megamorphicCallSites = new ArrayList<>(top);
+        megamorphicCallSites.sort(cmp.reversed());
+    }
+
+    private static String getPackageName(JMethod method) {
+        String className = method.getDeclaringClass().getName();
+        int index = className.lastIndexOf('.');
+        return index != -1 ? className.substring(0, index) : "";
+    }
+
+    void log() {
+        logger.info("#reachable methods: {}", reachableMethods);
+        if (stubs > 0) {
+            logger.info("#stub methods: {}", stubs);
+        }
+        logger.info("#call sites: {}", callSites);
+        logger.info("#call graph edges: {}", edges);
+        if (!megamorphicCallSites.isEmpty()) {
+            CallSiteFanOut max = megamorphicCallSites.get(0);
+            logger.info("max #callees: {} ({})", max.callees(), toString(max.callSite()));
+        }
+    }
+
+    /**
+     * Dumps the statistics to given file in JSON format.
+     */
+    void dump(String output) {
+        if (output == null) {
+            output = new File(Configs.getOutputDir(), "cg-stats.json").toString();
+        }
+        logger.info("Dumping call graph statistics to {} ...", output);
+        try {
+            new ObjectMapper()
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValue(new File(output), toJSON());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to dump call graph statistics to "
+                    + output, e);
+        }
+    }
+
+    private Map<String, Object> toJSON() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("reachableMethods", reachableMethods);
+        json.put("stubs", stubs);
+        json.put("callSites", callSites);
+        json.put("edges", edges);
+        json.put("phaseTimes", phaseTimes);
+        Map<String, Object> histograms = new LinkedHashMap<>();
+        fanOuts.forEach((kind, histogram) ->
+                histograms.put(kind.name(), histogram));
+        json.put("fanOutHistograms", histograms);
+        json.put("megamorphicCallSites", megamorphicCallSites.stream()
+                .map(cs -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("callSite", toString(cs.callSite()));
+                    entry.put("kind", CallGraphs.getCallKind(cs.callSite()).name());
+                    entry.put("callees", cs.callees());
+                    return entry;
+                })
+                .toList());
+        json.put("packageMethods", packageMethods);
+        return json;
+    }
+
+    private static String toString(Invoke invoke) {
+        return invoke.getContainer() + IRPrinter.toString(invoke);
+    }
+}
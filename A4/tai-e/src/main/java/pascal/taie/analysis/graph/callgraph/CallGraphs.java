@@ -24,6 +24,7 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.config.Configs;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.exp.InvokeDynamic;
@@ -32,13 +33,19 @@ import pascal.taie.ir.exp.InvokeInterface;
 import pascal.taie.ir.exp.InvokeSpecial;
 import pascal.taie.ir.exp.InvokeStatic;
 import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.IDProvider;
 import pascal.taie.util.MapIDProvider;
 import pascal.taie.util.graph.DotDumper;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -73,6 +80,31 @@ public final class CallGraphs {
         return getCallKind(invoke.getInvokeExp());
     }
 
+    /**
+     * Resolves the callee of given call site on the receiver of given type.
+     * Virtual and interface calls are dispatched via {@link DispatchTable}.
+     *
+     * @return the callee, or null if it cannot be resolved.
+     */
+    public static @Nullable JMethod resolveCallee(Type type, Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        if (callSite.isInterface() || callSite.isVirtual()) {
+            JClass jclass = type instanceof ClassType classType ?
+                    classType.getJClass() :
+                    // methods of arrays are inherited from java.lang.Object
+                    World.get().getClassHierarchy().getJREClass(ClassNames.OBJECT);
+            return DispatchTable.dispatch(jclass, methodRef.getSubsignature());
+        } else if (callSite.isSpecial()) {
+            return DispatchTable.dispatch(methodRef.getDeclaringClass(),
+                    methodRef.getSubsignature());
+        } else if (callSite.isStatic()) {
+            return methodRef.getDeclaringClass()
+                    .getDeclaredMethod(methodRef.getSubsignature());
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Dumps call graph to dot file.
      */
@@ -48,19 +48,38 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
      */
     public boolean addReachableMethod(JMethod method) {
         if (reachableMethods.add(method)) {
-            if (!method.isAbstract()) {
-                method.getIR().forEach(stmt -> {
-                    if (stmt instanceof Invoke invoke) {
-                        callSiteToContainer.put(invoke, method);
-                        callSitesIn.put(method, invoke);
-                    }
-                });
-            }
+            addCallSitesIn(method);
             return true;
         }
         return false;
     }
 
+    /**
+     * Adds a reachable method as a stub, i.e., its call sites are not
+     * added (and its IR is not built) until {@link #addCallSitesIn(JMethod)}
+     * is called on it.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addStubMethod(JMethod method) {
+        return reachableMethods.add(method);
+    }
+
+    /**
+     * Adds the call sites in the IR of given method to this call graph.
+     */
+    public void addCallSitesIn(JMethod method) {
+        if (!method.isAbstract()) {
+            method.getIR().forEach(stmt -> {
+                if (stmt instanceof Invoke invoke) {
+                    callSiteToContainer.put(invoke, method);
+                    callSitesIn.put(method, invoke);
+                }
+            });
+        }
+    }
+
     /**
      * Adds a new call graph edge to this call graph.
      *
@@ -77,6 +96,37 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
         }
     }
 
+    /**
+     * Removes the call sites in given method and their outgoing edges,
+     * and then adds the call sites in the current IR of the method.
+     * This is used to update the call graph in place when the body of
+     * the method has been changed. The callees of the removed edges are
+     * kept reachable.
+     *
+     * @return the call sites in the current IR of the method.
+     */
+    public Set<Invoke> resetCallSitesIn(JMethod method) {
+        for (Invoke callSite : Set.copyOf(callSitesIn.get(method))) {
+            for (Edge<Invoke, JMethod> edge : Set.copyOf(callSiteToEdges.get(callSite))) {
+                calleeToEdges.remove(edge.getCallee(), edge);
+            }
+            callSiteToEdges.removeAll(callSite);
+            callSiteToContainer.remove(callSite);
+            callSitesIn.remove(method, callSite);
+        }
+        addCallSitesIn(method);
+        return getCallSitesIn(method);
+    }
+
+    /**
+     * Converts this call graph into an immutable, int-indexed snapshot,
+     * which answers the adjacency queries without allocation.
+     * The snapshot does not reflect the later changes of this call graph.
+     */
+    public FrozenCallGraph freeze() {
+        return new FrozenCallGraph(this);
+    }
+
     @Override
     public JMethod getContainerOf(Invoke invoke) {
         return invoke.getContainer();
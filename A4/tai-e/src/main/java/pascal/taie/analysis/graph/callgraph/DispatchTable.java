@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoized virtual dispatch tables.
+ * <p>
+ * Each class has a table from {@link Subsignature} to the method
+ * dispatched on the class. The table is filled lazily: on a miss, the
+ * class either declares a non-abstract method of the subsignature, or
+ * the result is looked up in (and memoized by) the table of its superclass.
+ * The absence of target method is memoized as well.
+ * <p>
+ * The tables are shared by all clients of the current {@link World},
+ * and are cleared when the world is reset.
+ */
+public final class DispatchTable {
+
+    /** Marks the absence of target method, as the concurrent maps reject null. */
+    private static final Object NOT_FOUND = new Object();
+
+    private static final Map<JClass, Map<Subsignature, Object>> tables =
+            new ConcurrentHashMap<>();
+
+    static {
+        World.registerResetCallback(tables::clear);
+    }
+
+    private DispatchTable() {
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    public static @Nullable JMethod dispatch(@Nullable JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        Map<Subsignature, Object> table = tables.computeIfAbsent(jclass,
+                c -> new ConcurrentHashMap<>());
+        Object target = table.get(subsignature);
+        if (target == null) {
+            JMethod declaredMethod = jclass.getDeclaredMethod(subsignature);
+            if (declaredMethod != null && !declaredMethod.isAbstract()) {
+                target = declaredMethod;
+            } else {
+                JMethod inherited = dispatch(jclass.getSuperClass(), subsignature);
+                target = inherited != null ? inherited : NOT_FOUND;
+            }
+            table.put(subsignature, target);
+        }
+        return target == NOT_FOUND ? null : (JMethod) target;
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable, int-indexed snapshot of a finished call graph.
+ * <p>
+ * The reachable methods are numbered from 0, and all adjacency is stored
+ * in compressed sparse row (CSR) form, i.e., as flat arrays which are
+ * sliced by offset arrays. For example, the distinct callees of method
+ * {@code i} occupy the positions from {@link #getSuccsStart(int)} to
+ * {@link #getSuccsEnd(int)} (exclusive) of the successor array, so the
+ * clients can iterate them without allocating any objects. Similarly,
+ * the call sites are grouped by their containers, the edges are grouped
+ * by their call sites, and the edges into each method are indexed by
+ * another CSR. The edges (and their {@link MethodEdge} counterparts) are
+ * created once on freezing, and the set-based queries of {@link CallGraph}
+ * return lightweight views of the slices.
+ *
+ * @see DefaultCallGraph#freeze()
+ */
+public class FrozenCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private final List<JMethod> methods;
+
+    private final Map<JMethod, Integer> ids;
+
+    private final int[] entries;
+
+    private final Set<JMethod> nodes;
+
+    /**
+     * The call sites of method i are callSites[callSiteOffsets[i]]
+     * to callSites[callSiteOffsets[i + 1] - 1], sorted by their indexes.
+     */
+    private final int[] callSiteOffsets;
+
+    private final List<Invoke> callSites;
+
+    /**
+     * The edges out of call site j are edges[edgeOffsets[j]]
+     * to edges[edgeOffsets[j + 1] - 1].
+     */
+    private final int[] edgeOffsets;
+
+    private final List<Edge<Invoke, JMethod>> edges;
+
+    /** methodEdges[k] is the {@link MethodEdge} of edges[k]. */
+    private final List<MethodEdge<Invoke, JMethod>> methodEdges;
+
+    /**
+     * The positions (in edges) of the edges into method i are
+     * inEdges[inEdgeOffsets[i]] to inEdges[inEdgeOffsets[i + 1] - 1].
+     */
+    private final int[] inEdgeOffsets;
+
+    private final int[] inEdges;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    FrozenCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        methods = callGraph.reachableMethods().toList();
+        int n = methods.size();
+        ids = Maps.newMap(n);
+        for (JMethod method : methods) {
+            ids.put(method, ids.size());
+        }
+        entries = callGraph.entryMethods().mapToInt(ids::get).toArray();
+        nodes = Collections.unmodifiableSet(new LinkedHashSet<>(methods));
+        // call sites and out edges
+        callSiteOffsets = new int[n + 1];
+        callSites = new ArrayList<>();
+        List<Integer> edgeEnds = new ArrayList<>();
+        edges = new ArrayList<>();
+        methodEdges = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            JMethod caller = methods.get(i);
+            List<Invoke> sites = callGraph.callSitesIn(caller)
+                    .sorted(Comparator.comparingInt(Invoke::getIndex))
+                    .toList();
+            for (Invoke callSite : sites) {
+                callGraph.edgesOutOf(callSite)
+                        .filter(edge -> ids.containsKey(edge.getCallee()))
+                        .forEach(edge -> {
+                            edges.add(edge);
+                            methodEdges.add(new MethodEdge<>(
+                                    caller, edge.getCallee(), callSite));
+                        });
+                callSites.add(callSite);
+                edgeEnds.add(edges.size());
+            }
+            callSiteOffsets[i + 1] = callSites.size();
+        }
+        edgeOffsets = new int[callSites.size() + 1];
+        for (int j = 0; j < edgeEnds.size(); ++j) {
+            edgeOffsets[j + 1] = edgeEnds.get(j);
+        }
+        // in edges
+        inEdgeOffsets = new int[n + 1];
+        int[] edgeCallees = new int[edges.size()];
+        for (int k = 0; k < edges.size(); ++k) {
+            edgeCallees[k] = ids.get(edges.get(k).getCallee());
+            ++inEdgeOffsets[edgeCallees[k] + 1];
+        }
+        for (int i = 0; i < n; ++i) {
+            inEdgeOffsets[i + 1] += inEdgeOffsets[i];
+        }
+        inEdges = new int[edges.size()];
+        int[] next = inEdgeOffsets.clone();
+        for (int k = 0; k < edges.size(); ++k) {
+            inEdges[next[edgeCallees[k]]++] = k;
+        }
+        // distinct callees and callers
+        succOffsets = new int[n + 1];
+        predOffsets = new int[n + 1];
+        int[][] succsOf = new int[n][];
+        int[][] predsOf = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            int from = edgeOffsets[callSiteOffsets[i]];
+            int to = edgeOffsets[callSiteOffsets[i + 1]];
+            succsOf[i] = IntStream.range(from, to)
+                    .map(k -> edgeCallees[k])
+                    .distinct()
+                    .toArray();
+            predsOf[i] = IntStream.range(inEdgeOffsets[i], inEdgeOffsets[i + 1])
+                    .map(p -> ids.get(methodEdges.get(inEdges[p]).getSource()))
+                    .distinct()
+                    .toArray();
+        }
+        succs = flatten(succsOf, succOffsets);
+        preds = flatten(predsOf, predOffsets);
+    }
+
+    private static int[] flatten(int[][] rows, int[] offsets) {
+        for (int i = 0; i < rows.length; ++i) {
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+        int[] flat = new int[offsets[rows.length]];
+        for (int i = 0; i < rows.length; ++i) {
+            System.arraycopy(rows[i], 0, flat, offsets[i], rows[i].length);
+        }
+        return flat;
+    }
+
+    /**
+     * @return the position of given call site in callSites, or -1 if
+     * the call site is absent.
+     */
+    private int getCallSitePos(Invoke callSite) {
+        int id = getId(callSite.getContainer());
+        if (id == -1) {
+            return -1;
+        }
+        int low = callSiteOffsets[id];
+        int high = callSiteOffsets[id + 1] - 1;
+        int index = callSite.getIndex();
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = callSites.get(mid).getIndex();
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return callSites.get(mid) == callSite ? mid : -1;
+            }
+        }
+        return -1;
+    }
+
+    // ---------- int-indexed queries ----------
+
+    /** @return the ID of given method, or -1 if it is not reachable. */
+    public int getId(JMethod method) {
+        Integer id = ids.get(method);
+        return id != null ? id : -1;
+    }
+
+    public JMethod getMethod(int id) {
+        return methods.get(id);
+    }
+
+    public int getSuccsStart(int id) {
+        return succOffsets[id];
+    }
+
+    public int getSuccsEnd(int id) {
+        return succOffsets[id + 1];
+    }
+
+    /** @return the ID of the callee at given position of the successor array. */
+    public int getSucc(int pos) {
+        return succs[pos];
+    }
+
+    public int getPredsStart(int id) {
+        return predOffsets[id];
+    }
+
+    public int getPredsEnd(int id) {
+        return predOffsets[id + 1];
+    }
+
+    /** @return the ID of the caller at given position of the predecessor array. */
+    public int getPred(int pos) {
+        return preds[pos];
+    }
+
+    // ---------- queries of CallGraph ----------
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int id = getId(callee);
+        return id != -1 ?
+                new Slice<>(inEdgeOffsets[id], inEdgeOffsets[id + 1],
+                        p -> edges.get(inEdges[p]).getCallSite()) :
+                Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int pos = getCallSitePos(callSite);
+        return pos != -1 ?
+                new Slice<>(edgeOffsets[pos], edgeOffsets[pos + 1],
+                        k -> edges.get(k).getCallee()) :
+                Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int id = getId(method);
+        return id != -1 ?
+                new Slice<>(callSiteOffsets[id], callSiteOffsets[id + 1], callSites::get) :
+                Set.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int pos = getCallSitePos(callSite);
+        return pos != -1 ?
+                edges.subList(edgeOffsets[pos], edgeOffsets[pos + 1]).stream() :
+                Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int id = getId(method);
+        return id != -1 ?
+                IntStream.range(inEdgeOffsets[id], inEdgeOffsets[id + 1])
+                        .mapToObj(p -> edges.get(inEdges[p])) :
+                Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return edges.stream();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edges.size();
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return IntStream.of(entries).mapToObj(methods::get);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return methods.stream();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.size();
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return ids.containsKey(method);
+    }
+
+    // ---------- queries of Graph ----------
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int id = getId(source);
+        int targetId = getId(target);
+        if (id == -1 || targetId == -1) {
+            return false;
+        }
+        for (int i = succOffsets[id]; i < succOffsets[id + 1]; ++i) {
+            if (succs[i] == targetId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        int id = getId(method);
+        return id != -1 ?
+                new Slice<>(inEdgeOffsets[id], inEdgeOffsets[id + 1],
+                        p -> methodEdges.get(inEdges[p])) :
+                Set.of();
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        int id = getId(method);
+        return id != -1 ?
+                new Slice<>(edgeOffsets[callSiteOffsets[id]],
+                        edgeOffsets[callSiteOffsets[id + 1]], methodEdges::get) :
+                Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        int id = getId(node);
+        return id != -1 ?
+                new Slice<>(predOffsets[id], predOffsets[id + 1], p -> methods.get(preds[p])) :
+                Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        int id = getId(node);
+        return id != -1 ?
+                new Slice<>(succOffsets[id], succOffsets[id + 1], p -> methods.get(succs[p])) :
+                Set.of();
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return nodes;
+    }
+
+    // ---------- queries of StmtResult ----------
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable set view of the elements at positions [from, to)
+     * of a CSR array. The elements of each slice are distinct.
+     */
+    private static class Slice<T> extends AbstractSet<T> {
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<T> element;
+
+        private Slice(int from, int to, IntFunction<T> element) {
+            this.from = from;
+            this.to = to;
+            this.element = element;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+
+                private int pos = from;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < to;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return element.apply(pos++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
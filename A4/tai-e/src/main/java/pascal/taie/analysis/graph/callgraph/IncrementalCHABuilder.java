@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Incremental implementation of the CHA algorithm, which keeps
+ * the built call graph up to date with the program in place.
+ * <ul>
+ *     <li>When a class is added to the class hierarchy, the virtual
+ *     and interface call sites whose declaring class is a supertype of
+ *     the new class are dispatched on the new class.</li>
+ *     <li>When the body of a method is changed, e.g., by
+ *     {@link JMethod#setMethodSource(Object)}, the client calls
+ *     {@link #methodChanged(JMethod)}, and only the call sites in
+ *     the method are resolved again.</li>
+ * </ul>
+ * The newly reachable methods are then processed as in {@link CHABuilder}.
+ * The methods which become unreachable by a change are kept in the call
+ * graph, i.e., the call graph stays sound but may be less precise than
+ * the one built from scratch.
+ * <p>
+ * The builder listens to the class hierarchy after {@link #build()},
+ * and the client calls {@link #close()} to stop the updates.
+ * When built by {@link CallGraphBuilder}, the builder is stored in
+ * {@link World} with key {@link #ID}.
+ */
+public class IncrementalCHABuilder extends CHABuilder {
+
+    public static final String ID = "cg-incremental";
+
+    /**
+     * Virtual and interface call sites in the call graph,
+     * indexed by the declaring classes of their method references.
+     */
+    private final MultiMap<JClass, Invoke> polymorphicCallSites = Maps.newMultiMap();
+
+    private final Consumer<JClass> classListener = this::classAdded;
+
+    private DefaultCallGraph callGraph;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        callGraph = buildCallGraph(World.get().getMainMethod());
+        World.get().getClassHierarchy().addClassListener(classListener);
+        return callGraph;
+    }
+
+    /**
+     * Stops updating the call graph, and unregisters this builder
+     * from the class hierarchy.
+     */
+    public void close() {
+        if (callGraph != null) {
+            World.get().getClassHierarchy().removeClassListener(classListener);
+            callGraph = null;
+            polymorphicCallSites.clear();
+        }
+    }
+
+    @Override
+    void processCallSite(Invoke invoke, DefaultCallGraph callGraph, Queue<JMethod> workList) {
+        if (invoke.isVirtual() || invoke.isInterface()) {
+            polymorphicCallSites.put(invoke.getMethodRef().getDeclaringClass(), invoke);
+        }
+        super.processCallSite(invoke, callGraph, workList);
+    }
+
+    /**
+     * Dispatches the call sites which may be dispatched on
+     * the added class, i.e., the class is the only new receiver type.
+     */
+    private void classAdded(JClass jclass) {
+        if (callGraph == null || jclass.isInterface()) {
+            return;
+        }
+        Queue<JMethod> workList = new LinkedList<>();
+        for (JClass supertype : getSupertypesOf(jclass)) {
+            for (Invoke invoke : polymorphicCallSites.get(supertype)) {
+                JMethod callee = DispatchTable.dispatch(
+                        jclass, invoke.getMethodRef().getSubsignature());
+                if (callee != null && callGraph.addEdge(
+                        new Edge<>(CallGraphs.getCallKind(invoke), invoke, callee))) {
+                    workList.add(callee);
+                }
+            }
+        }
+        iterateWorkList(workList, callGraph);
+    }
+
+    /**
+     * Updates the call graph after the body of given method has been
+     * changed. The IR of the method is discarded and rebuilt, and the
+     * call sites in the method are resolved again.
+     */
+    public void methodChanged(JMethod method) {
+        method.resetIR();
+        if (callGraph == null || !callGraph.contains(method)) {
+            return;
+        }
+        callGraph.getCallSitesIn(method).forEach(invoke -> polymorphicCallSites.remove(
+                invoke.getMethodRef().getDeclaringClass(), invoke));
+        Queue<JMethod> workList = new LinkedList<>();
+        for (Invoke invoke : callGraph.resetCallSitesIn(method)) {
+            processCallSite(invoke, callGraph, workList);
+        }
+        iterateWorkList(workList, callGraph);
+    }
+
+    /**
+     * @return the class itself, its (direct and indirect) superclasses,
+     * and all interfaces implemented by them.
+     */
+    private static Set<JClass> getSupertypesOf(JClass jclass) {
+        Set<JClass> supertypes = Sets.newHybridSet();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            JClass c = stack.pop();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    stack.push(c.getSuperClass());
+                }
+                c.getInterfaces().forEach(stack::push);
+            }
+        }
+        return supertypes;
+    }
+}
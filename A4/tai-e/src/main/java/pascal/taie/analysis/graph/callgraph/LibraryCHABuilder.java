@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the CHA algorithm for partial programs, e.g., libraries.
+ * <p>
+ * The call graph starts from either the main method, or all public methods
+ * of the public classes in scope. The methods in scope are analyzed as in
+ * {@link CHABuilder}, while the methods out of scope (e.g., the ones of JDK)
+ * are added to the call graph as stubs, whose call sites are resolved
+ * only when a client asks for them, i.e., the callees in library are
+ * expanded on demand.
+ * <p>
+ * Only the queries on the call sites of a method, i.e.,
+ * {@link CallGraph#getCallSitesIn(Object)}, {@link CallGraph#getCalleesOf(Object)}
+ * and {@link CallGraph#edgesOutOf(Object)}, expand the method if it is a stub.
+ * The other queries answer on the current call graph, in which the stubs
+ * (see {@link CallGraph#isStub(Object)}) are reachable methods without
+ * call sites, so that the whole-graph clients, e.g., the statistics and
+ * {@link CallGraphSCC}, keep the call graph small. The method and edge
+ * collections returned by these queries are snapshots, thus the clients
+ * can iterate them and query the call sites meanwhile.
+ */
+class LibraryCHABuilder extends CHABuilder {
+
+    private final boolean publicEntries;
+
+    /**
+     * Prefixes of the names of classes in scope, or null if the scope
+     * consists of the application classes.
+     */
+    private final @Nullable List<String> scope;
+
+    private final Set<JMethod> stubs = Sets.newSet();
+
+    private OnDemandCallGraph callGraph;
+
+    /**
+     * @param publicEntries if true, the entries are the public methods in
+     *                      scope, otherwise the entry is the main method.
+     * @param scope         prefixes of the names of classes in scope,
+     *                      or null for application classes.
+     */
+    LibraryCHABuilder(boolean publicEntries, @Nullable List<String> scope) {
+        this.publicEntries = publicEntries;
+        this.scope = scope;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        callGraph = new OnDemandCallGraph();
+        List<JMethod> entries = publicEntries ?
+                World.get().getClassHierarchy()
+                        .allClasses()
+                        .filter(c -> c.isPublic() && isInScope(c))
+                        .flatMap(c -> c.getDeclaredMethods().stream())
+                        .filter(m -> m.isPublic() && !m.isAbstract())
+                        .toList() :
+                List.of(World.get().getMainMethod());
+        entries.forEach(callGraph::addEntryMethod);
+        Queue<JMethod> workList = new LinkedList<>(entries);
+        iterateWorkList(workList, callGraph);
+        return callGraph;
+    }
+
+    @Override
+    void iterateWorkList(Queue<JMethod> workList, DefaultCallGraph callGraph) {
+        while (!workList.isEmpty()) {
+            JMethod jMethod = workList.poll();
+            if (callGraph.reachableMethods.contains(jMethod)) {
+                continue;
+            }
+            if (isInScope(jMethod.getDeclaringClass())
+                    || callGraph.entryMethods.contains(jMethod)) {
+                callGraph.addReachableMethod(jMethod);
+                callGraph.callSitesIn(jMethod).forEach(invoke ->
+                        processCallSite(invoke, callGraph, workList));
+            } else {
+                callGraph.addStubMethod(jMethod);
+                stubs.add(jMethod);
+            }
+        }
+    }
+
+    private boolean isInScope(JClass jclass) {
+        if (scope == null) {
+            return jclass.isApplication();
+        }
+        String name = jclass.getName();
+        for (String prefix : scope) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves the call sites in given stub method, and processes
+     * the newly reachable methods.
+     */
+    private void expand(JMethod stub) {
+        stubs.remove(stub);
+        callGraph.addCallSitesIn(stub);
+        Queue<JMethod> workList = new LinkedList<>();
+        callGraph.callSitesIn(stub).forEach(invoke ->
+                processCallSite(invoke, callGraph, workList));
+        iterateWorkList(workList, callGraph);
+    }
+
+    /**
+     * Call graph which expands the stub methods when their call sites
+     * are queried.
+     */
+    private class OnDemandCallGraph extends DefaultCallGraph {
+
+        private void expandIfStub(JMethod method) {
+            if (stubs.contains(method)) {
+                expand(method);
+            }
+        }
+
+        @Override
+        public boolean isStub(JMethod method) {
+            return stubs.contains(method);
+        }
+
+        @Override
+        public Set<Invoke> getCallSitesIn(JMethod method) {
+            expandIfStub(method);
+            return super.getCallSitesIn(method);
+        }
+
+        @Override
+        public Set<JMethod> getCalleesOf(Invoke callSite) {
+            expandIfStub(callSite.getContainer());
+            return super.getCalleesOf(callSite);
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+            expandIfStub(callSite.getContainer());
+            return super.edgesOutOf(callSite);
+        }
+
+        // The queries below do not expand the stubs, and the stubs are
+        // the leaves of the current call graph.
+
+        @Override
+        public Set<JMethod> getCalleesOfM(JMethod caller) {
+            return isStub(caller) ? Set.of() : super.getCalleesOfM(caller);
+        }
+
+        @Override
+        public Set<JMethod> getSuccsOf(JMethod node) {
+            return isStub(node) ? Set.of() : super.getSuccsOf(node);
+        }
+
+        @Override
+        public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+            return isStub(method) ? Set.of() : super.getOutEdgesOf(method);
+        }
+
+        @Override
+        public Set<Invoke> getCallersOf(JMethod callee) {
+            return Set.copyOf(super.getCallersOf(callee));
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+            return super.edgesInTo(method).toList().stream();
+        }
+
+        @Override
+        public Stream<Edge<Invoke, JMethod>> edges() {
+            return super.edges().toList().stream();
+        }
+
+        @Override
+        public Stream<JMethod> reachableMethods() {
+            return super.reachableMethods().toList().stream();
+        }
+
+        @Override
+        public Set<JMethod> getNodes() {
+            return Set.copyOf(super.getNodes());
+        }
+    }
+}
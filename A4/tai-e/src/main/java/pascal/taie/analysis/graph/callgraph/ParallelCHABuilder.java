@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Parallel implementation of the CHA algorithm.
+ * <p>
+ * The reachable methods are discovered level by level. The IRs of the
+ * methods of current frontier are built sequentially by the calling thread,
+ * as the IR builder is not thread-safe; then the workers resolve the call
+ * sites of the frontier methods in parallel, which only queries the class
+ * hierarchy and the (concurrent) {@link DispatchTable}. Each worker records
+ * the out edges of its method in a concurrent map and claims the callees in
+ * a concurrent set, and the callees which are not claimed before form the
+ * next frontier.
+ * <p>
+ * The multimaps of {@link DefaultCallGraph} are not thread-safe, thus the
+ * call graph is assembled from the recorded edges by the calling thread at
+ * last, which only copies the edges without resolving any call site again.
+ * The methods and edges are added in the same order as they are discovered,
+ * thus the result has the same methods and edges as the sequential builder.
+ */
+class ParallelCHABuilder extends CHABuilder {
+
+    @Override
+    DefaultCallGraph buildCallGraph(JMethod entry) {
+        Set<JMethod> claimed = ConcurrentHashMap.newKeySet();
+        Map<JMethod, List<Edge<Invoke, JMethod>>> edgesOut = new ConcurrentHashMap<>();
+        List<JMethod> methods = new ArrayList<>();
+        claimed.add(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            methods.addAll(frontier);
+            frontier.stream()
+                    .filter(method -> !method.isAbstract())
+                    .forEach(JMethod::getIR);
+            frontier = frontier.parallelStream()
+                    .flatMap(method -> resolveCallSitesIn(method, edgesOut))
+                    .filter(claimed::add)
+                    .toList();
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        for (JMethod method : methods) {
+            callGraph.addReachableMethod(method);
+            edgesOut.getOrDefault(method, List.of()).forEach(callGraph::addEdge);
+        }
+        return callGraph;
+    }
+
+    /**
+     * Resolves the call sites in given method, whose IR has been built
+     * by the calling thread, and records the edges to the callees.
+     *
+     * @return the callees of the call sites.
+     */
+    private Stream<JMethod> resolveCallSitesIn(
+            JMethod method, Map<JMethod, List<Edge<Invoke, JMethod>>> edgesOut) {
+        if (method.isAbstract()) {
+            return Stream.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke invoke) {
+                CallKind kind = CallGraphs.getCallKind(invoke);
+                for (JMethod callee : resolve(invoke)) {
+                    edges.add(new Edge<>(kind, invoke, callee));
+                }
+            }
+        }
+        edgesOut.put(method, edges);
+        return edges.stream().map(Edge::getCallee);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * <p>
+ * Different from CHA, the virtual and interface calls are only resolved to
+ * the methods dispatched on the instantiated classes, i.e., the classes of
+ * the objects created by {@link New} and reference literals in reachable
+ * methods. The arrays are regarded as instances of java.lang.Object.
+ * When a class becomes instantiated, the reachable call sites which
+ * may be dispatched on it are revisited.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private final ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Reachable virtual and interface call sites, grouped by the declaring
+     * classes of their method references.
+     */
+    private final MultiMap<JClass, Invoke> polymorphicCallSites = Maps.newMultiMap();
+
+    RTABuilder() {
+        hierarchy = World.get().getClassHierarchy();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        JMethod entry = World.get().getMainMethod();
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new LinkedList<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                processNewMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    /** Processes the allocations and call sites of new reachable method. */
+    private void processNewMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                instantiate(newStmt.getRValue().getType());
+            } else if (stmt instanceof AssignLiteral assignLiteral &&
+                    assignLiteral.getRValue() instanceof ReferenceLiteral literal) {
+                instantiate(literal.getType());
+            }
+        }
+        callGraph.callSitesIn(method).forEach(this::processCallSite);
+    }
+
+    /**
+     * Marks the class of given type as instantiated, and resolves
+     * the reachable call sites which may be dispatched on the class.
+     */
+    private void instantiate(Type type) {
+        JClass jclass;
+        if (type instanceof ClassType classType) {
+            jclass = classType.getJClass();
+        } else if (type instanceof ArrayType) {
+            jclass = hierarchy.getJREClass(ClassNames.OBJECT);
+        } else { // e.g., type of null literal
+            return;
+        }
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            for (Invoke callSite : polymorphicCallSites.get(c)) {
+                addCallEdge(callSite, dispatch(jclass, callSite));
+            }
+        }
+        for (JClass iface : getAllInterfacesOf(jclass)) {
+            for (Invoke callSite : polymorphicCallSites.get(iface)) {
+                addCallEdge(callSite, dispatch(jclass, callSite));
+            }
+        }
+    }
+
+    /** Resolves given call site on the classes which are instantiated so far. */
+    private void processCallSite(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        if (callSite.isStatic()) {
+            addCallEdge(callSite,
+                    declaringClass.getDeclaredMethod(methodRef.getSubsignature()));
+        } else if (callSite.isSpecial()) {
+            addCallEdge(callSite, dispatch(declaringClass, callSite));
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            polymorphicCallSites.put(declaringClass, callSite);
+            Collection<JClass> subclasses = declaringClass.isInterface() ?
+                    hierarchy.getAllImplementorsOf(declaringClass) :
+                    hierarchy.getAllSubclassesOf(declaringClass);
+            for (JClass subclass : subclasses) {
+                if (instantiatedClasses.contains(subclass)) {
+                    addCallEdge(callSite, dispatch(subclass, callSite));
+                }
+            }
+        }
+    }
+
+    private static JMethod dispatch(JClass jclass, Invoke callSite) {
+        return DispatchTable.dispatch(jclass, callSite.getMethodRef().getSubsignature());
+    }
+
+    /** Adds the call edge to the callee if it is not null, and reaches the callee. */
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(
+                new Edge<>(CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+
+    /** @return all interfaces implemented by given class directly or indirectly. */
+    private static Set<JClass> getAllInterfacesOf(JClass jclass) {
+        Set<JClass> interfaces = Sets.newHybridSet();
+        Queue<JClass> queue = new LinkedList<>();
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            queue.addAll(c.getInterfaces());
+        }
+        while (!queue.isEmpty()) {
+            JClass iface = queue.poll();
+            if (interfaces.add(iface)) {
+                queue.addAll(iface.getInterfaces());
+            }
+        }
+        return interfaces;
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.ir.proginfo.MethodRef;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -50,6 +51,18 @@ public interface ClassHierarchy {
      */
     void addClass(JClass jclass);
 
+    /**
+     * Registers a listener which is notified after each call of
+     * {@link #addClass(JClass)}, i.e., when the hierarchy has been
+     * updated with the new class.
+     */
+    void addClassListener(Consumer<JClass> listener);
+
+    /**
+     * Unregisters a listener registered by {@link #addClassListener(Consumer)}.
+     */
+    void removeClassListener(Consumer<JClass> listener);
+
     Stream<JClass> allClasses();
 
     Stream<JClass> applicationClasses();
@@ -75,6 +88,30 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if subclass is a (direct or indirect) subclass of
+     * superclass, or subclass implements superclass if it is an interface,
+     * or they are the same class.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * @return given class and all its (direct and indirect) subclasses.
+     * The result is a view of the current subtype index, which becomes
+     * invalid after {@link #addClass(JClass)}, e.g., when the call graph
+     * is maintained incrementally, thus it must not be kept across
+     * the additions of classes.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
+    /**
+     * @return all classes which implement given interface directly or
+     * indirectly, including the subclasses of the implementors.
+     * As {@link #getAllSubclassesOf(JClass)}, the result is a view which
+     * becomes invalid after {@link #addClass(JClass)}.
+     */
+    Collection<JClass> getAllImplementorsOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -28,9 +28,12 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,6 +68,14 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Index of subtype closure, built on demand and updated incrementally
+     * when new class is added.
+     */
+    private SubtypeIndex subtypeIndex;
+
+    private final List<Consumer<JClass>> classListeners = new ArrayList<>();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -117,6 +128,18 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                         .add(jclass);
             }
         }
+        updateSubtypeIndex(jclass);
+        List.copyOf(classListeners).forEach(listener -> listener.accept(jclass));
+    }
+
+    @Override
+    public void addClassListener(Consumer<JClass> listener) {
+        classListeners.add(listener);
+    }
+
+    @Override
+    public void removeClassListener(Consumer<JClass> listener) {
+        classListeners.remove(listener);
     }
 
     @Override
@@ -160,6 +183,39 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        return getSubtypeIndex().isSubclass(superclass, subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        return getSubtypeIndex().getAllSubclassesOf(jclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllImplementorsOf(JClass jclass) {
+        return getSubtypeIndex().getAllImplementorsOf(jclass);
+    }
+
+    /**
+     * Inserts the new class into the subtype index if it has been built,
+     * the index is discarded and rebuilt on demand only if the class
+     * cannot be inserted incrementally.
+     */
+    private synchronized void updateSubtypeIndex(JClass jclass) {
+        if (subtypeIndex != null && !subtypeIndex.addClass(this, jclass)) {
+            subtypeIndex = null;
+        }
+    }
+
+    private synchronized SubtypeIndex getSubtypeIndex() {
+        if (subtypeIndex == null) {
+            subtypeIndex = new SubtypeIndex(this);
+        }
+        return subtypeIndex;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -57,8 +57,10 @@ public class JMethod extends ClassMember {
     /**
      * Source of the body (and/or other information) of this method.
      * IRBuilder can use this to build method IR.
+     * It is replaced by {@link #setMethodSource(Object)} when the body
+     * of this method is changed.
      */
-    private final Object methodSource;
+    private Object methodSource;
 
     private IR ir;
 
@@ -148,6 +150,11 @@ public class JMethod extends ClassMember {
         return methodSource;
     }
 
+    /**
+     * Builds the IR on first call. This method is not thread-safe, as the
+     * IR builder is not; the concurrent clients, e.g., the parallel call
+     * graph builder, build the IRs on a single thread before sharing them.
+     */
     public IR getIR() {
         if (ir == null) {
             if (isAbstract()) {
@@ -163,6 +170,26 @@ public class JMethod extends ClassMember {
         return ir;
     }
 
+    /**
+     * Discards the IR of this method, so that it is rebuilt from
+     * the method source on next call of {@link #getIR()}.
+     * This is used when the body of this method has been changed.
+     */
+    public void resetIR() {
+        ir = null;
+    }
+
+    /**
+     * Replaces the body of this method by given method source, which must
+     * be acceptable to the IR builder, e.g., the source of another method
+     * with the same parameter and return types. The IR is rebuilt from
+     * the new source on next call of {@link #getIR()}.
+     */
+    public void setMethodSource(Object methodSource) {
+        this.methodSource = methodSource;
+        ir = null;
+    }
+
     /**
      * @return the {@link MethodRef} pointing to this method.
      */
@@ -0,0 +1,259 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newHybridSet;
+
+/**
+ * Index of the subtype closure of a class hierarchy.
+ * <p>
+ * The classes (not interfaces) are numbered by the pre-order of DFS over
+ * the class tree, thus all subclasses of a class occupy a contiguous range
+ * of numbers starting from the number of the class itself. For each
+ * interface, the classes implementing it (directly, via superinterfaces,
+ * or via superclasses) are kept as a bitset of the class numbers.
+ * <p>
+ * The classes added after the index is built are inserted by
+ * {@link #addClass(ClassHierarchy, JClass)} incrementally, as long as they are
+ * leaves of the hierarchy, i.e., no class extends or implements them yet.
+ */
+class SubtypeIndex {
+
+    /** Classes ordered by their numbers. */
+    private final List<JClass> classes = new ArrayList<>();
+
+    /** Number of each class. */
+    private final Map<JClass, Integer> numbers = newMap();
+
+    /** Largest number in the subtree of each class, inclusive. */
+    private final Map<JClass, Integer> lastNumbers = newMap();
+
+    /** Classes implementing each interface. */
+    private final Map<JClass, BitSet> implementors = newMap();
+
+    /** All subinterfaces of each interface, excluding itself. */
+    private final Map<JClass, Set<JClass>> subinterfaces = newMap();
+
+    SubtypeIndex(ClassHierarchy hierarchy) {
+        hierarchy.allClasses()
+                .filter(c -> !c.isInterface() && c.getSuperClass() == null)
+                .forEach(root -> number(hierarchy, root));
+        for (JClass jclass : classes) {
+            int first = numbers.get(jclass);
+            int last = lastNumbers.get(jclass);
+            for (JClass iface : jclass.getInterfaces()) {
+                for (JClass superinterface : getSuperinterfacesOf(iface)) {
+                    implementors.computeIfAbsent(superinterface, i -> new BitSet())
+                            .set(first, last + 1);
+                }
+            }
+        }
+        hierarchy.allClasses()
+                .filter(JClass::isInterface)
+                .forEach(iface -> getSuperinterfacesOf(iface).forEach(superinterface -> {
+                    if (superinterface != iface) {
+                        subinterfaces.computeIfAbsent(superinterface, i -> newHybridSet())
+                                .add(iface);
+                    }
+                }));
+    }
+
+    /**
+     * Inserts the class which has been added to the hierarchy into the index.
+     * A new class is numbered right after the subtree of its superclass,
+     * and the numbers after it are shifted by one.
+     *
+     * @return true if the class is inserted, or false if the class is not
+     * a leaf of the hierarchy, then the index must be rebuilt.
+     */
+    boolean addClass(ClassHierarchy hierarchy, JClass jclass) {
+        if (numbers.containsKey(jclass)) {
+            return true;
+        }
+        if (jclass.isInterface()) {
+            if (!hierarchy.getDirectSubinterfacesOf(jclass).isEmpty() ||
+                    !hierarchy.getDirectImplementorsOf(jclass).isEmpty()) {
+                return false;
+            }
+            getSuperinterfacesOf(jclass).forEach(superinterface -> {
+                if (superinterface != jclass) {
+                    subinterfaces.computeIfAbsent(superinterface, i -> newHybridSet())
+                            .add(jclass);
+                }
+            });
+            return true;
+        }
+        if (!hierarchy.getDirectSubclassesOf(jclass).isEmpty()) {
+            return false;
+        }
+        JClass superclass = jclass.getSuperClass();
+        int pos;
+        if (superclass == null) {
+            pos = classes.size();
+        } else if (numbers.containsKey(superclass)) {
+            pos = lastNumbers.get(superclass) + 1;
+        } else {
+            return false;
+        }
+        // shift the classes after pos
+        for (int i = pos; i < classes.size(); ++i) {
+            numbers.put(classes.get(i), i + 1);
+        }
+        lastNumbers.replaceAll((c, last) -> last >= pos ? last + 1 : last);
+        for (JClass c = superclass; c != null; c = c.getSuperClass()) {
+            // the subtrees of ancestors which end right before pos now cover it
+            if (lastNumbers.get(c) == pos - 1) {
+                lastNumbers.put(c, pos);
+            }
+        }
+        for (BitSet bits : implementors.values()) {
+            shift(bits, pos);
+        }
+        classes.add(pos, jclass);
+        numbers.put(jclass, pos);
+        lastNumbers.put(jclass, pos);
+        // the new class implements the interfaces of its superclass and its own
+        if (superclass != null) {
+            int superNumber = numbers.get(superclass);
+            implementors.values().forEach(bits -> {
+                if (bits.get(superNumber)) {
+                    bits.set(pos);
+                }
+            });
+        }
+        for (JClass iface : jclass.getInterfaces()) {
+            for (JClass superinterface : getSuperinterfacesOf(iface)) {
+                implementors.computeIfAbsent(superinterface, i -> new BitSet()).set(pos);
+            }
+        }
+        return true;
+    }
+
+    /** Shifts the bits from pos (inclusive) by one. */
+    private static void shift(BitSet bits, int pos) {
+        for (int i = bits.length() - 1; i >= pos; i = bits.previousSetBit(i - 1)) {
+            bits.clear(i);
+            bits.set(i + 1);
+        }
+    }
+
+    /** Numbers given class and its subclasses by DFS pre-order. */
+    private void number(ClassHierarchy hierarchy, JClass jclass) {
+        numbers.put(jclass, classes.size());
+        classes.add(jclass);
+        for (JClass subclass : hierarchy.getDirectSubclassesOf(jclass)) {
+            number(hierarchy, subclass);
+        }
+        lastNumbers.put(jclass, classes.size() - 1);
+    }
+
+    /** @return given interface and all its superinterfaces. */
+    private Set<JClass> getSuperinterfacesOf(JClass iface) {
+        Set<JClass> result = newHybridSet();
+        collectSuperinterfaces(iface, result);
+        return result;
+    }
+
+    private static void collectSuperinterfaces(JClass iface, Set<JClass> result) {
+        if (result.add(iface)) {
+            for (JClass superinterface : iface.getInterfaces()) {
+                collectSuperinterfaces(superinterface, result);
+            }
+        }
+    }
+
+    /**
+     * @return true if subclass is a subclass of superclass, or subclass
+     * implements superclass (as an interface), or they are the same.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        if (superclass.isInterface()) {
+            if (subclass.isInterface()) {
+                return getAllSubinterfacesOf(superclass).contains(subclass);
+            }
+            Integer number = numbers.get(subclass);
+            BitSet bits = implementors.get(superclass);
+            return number != null && bits != null && bits.get(number);
+        }
+        Integer number = numbers.get(subclass);
+        Integer first = numbers.get(superclass);
+        return number != null && first != null &&
+                first <= number && number <= lastNumbers.get(superclass);
+    }
+
+    /**
+     * @return given class and all its (direct and indirect) subclasses,
+     * which occupy a contiguous range of the class numbers.
+     * The result is empty if given class is an interface.
+     * The result is a view which is invalid after a class is added.
+     */
+    List<JClass> getAllSubclassesOf(JClass jclass) {
+        Integer first = numbers.get(jclass);
+        if (first == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableList(
+                classes.subList(first, lastNumbers.get(jclass) + 1));
+    }
+
+    /**
+     * @return all classes (not interfaces) implementing given interface,
+     * including the subclasses of the implementors.
+     */
+    List<JClass> getAllImplementorsOf(JClass iface) {
+        BitSet bits = implementors.get(iface);
+        if (bits == null) {
+            return List.of();
+        }
+        int[] implementorNumbers = bits.stream().toArray();
+        return new AbstractList<>() {
+            @Override
+            public JClass get(int index) {
+                return classes.get(implementorNumbers[index]);
+            }
+
+            @Override
+            public int size() {
+                return implementorNumbers.length;
+            }
+        };
+    }
+
+    /** @return all (direct and indirect) subinterfaces of given interface. */
+    Collection<JClass> getAllSubinterfacesOf(JClass iface) {
+        return subinterfaces.getOrDefault(iface, Set.of());
+    }
+}
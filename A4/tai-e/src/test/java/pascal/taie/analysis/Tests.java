@@ -61,6 +61,22 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        testVariant(main, classPath, id, id, opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case, and compares its results
+     * with the expected file of given variant instead of the one of *id*,
+     * e.g., when the analysis is configured to use a different algorithm.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param id        ID of the analysis to be executed
+     * @param variant   name of the expected file variant
+     * @param opts      options for the analysis
+     */
+    public static void testVariant(String main, String classPath,
+                                   String id, String variant, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -82,7 +98,7 @@ public final class Tests {
         }
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
+        String file = getExpectedFile(classPath, main, variant);
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
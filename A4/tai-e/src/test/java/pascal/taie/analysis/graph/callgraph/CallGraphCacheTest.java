@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Before;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphCacheTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static final Path CACHE = Path.of("output", "cg-cache-test.bin");
+
+    @Before
+    public void deleteCache() throws IOException {
+        Files.deleteIfExists(CACHE);
+    }
+
+    private static void test(String main) {
+        Tests.test(main, CLASS_PATH, CallGraphBuilder.ID,
+                "algorithm:cha;freeze:false;cache:" + CACHE);
+    }
+
+    private static boolean isLoadedFromCache() {
+        return World.get().getResult(CallGraphBuilder.ID) instanceof CachedCallGraph;
+    }
+
+    /**
+     * The call graph loaded from the cache is identical to the built one.
+     */
+    @Test
+    public void testRoundTrip() {
+        test("VirtualCall");
+        assertFalse(isLoadedFromCache());
+        assertTrue(Files.isRegularFile(CACHE));
+        test("VirtualCall");
+        assertTrue(isLoadedFromCache());
+    }
+
+    /**
+     * The cache of another program is stale, and is replaced
+     * by the cache of the newly built call graph.
+     */
+    @Test
+    public void testStaleCache() {
+        test("Interface");
+        test("AbstractMethod");
+        assertFalse(isLoadedFromCache());
+        test("AbstractMethod");
+        assertTrue(isLoadedFromCache());
+    }
+
+    /**
+     * The broken cache is ignored, and is replaced
+     * by the cache of the newly built call graph.
+     */
+    @Test
+    public void testBrokenCache() throws IOException {
+        Files.createDirectories(CACHE.getParent());
+        Files.write(CACHE, new byte[]{0x54, 0x43, 0x47});
+        test("StaticCall");
+        assertFalse(isLoadedFromCache());
+        test("StaticCall");
+        assertTrue(isLoadedFromCache());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphReachabilityTest {
+
+    /**
+     * @return the methods reachable from given method by BFS,
+     * including the method itself.
+     */
+    private static Set<JMethod> bfs(CallGraph<Invoke, JMethod> callGraph, JMethod from) {
+        Set<JMethod> reached = new HashSet<>();
+        Queue<JMethod> queue = new ArrayDeque<>();
+        reached.add(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            for (JMethod callee : callGraph.getSuccsOf(queue.poll())) {
+                if (reached.add(callee)) {
+                    queue.add(callee);
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Compares the index with BFS for every pair of methods of a call graph
+     * with recursion, diamond and unreachable pairs.
+     */
+    @Test
+    public void testReaches() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/cha/", "-m", "CallGraphShapes",
+                "-a", "cg=algorithm:cha",
+                "-a", CallGraphSCCBuilder.ID,
+                "-a", CallGraphReachabilityBuilder.ID});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        CallGraphSCC scc = World.get().getResult(CallGraphSCCBuilder.ID);
+        CallGraphReachability reachability =
+                World.get().getResult(CallGraphReachabilityBuilder.ID);
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        int unreachablePairs = 0;
+        int fallbackPairs = 0;
+        for (JMethod from : methods) {
+            Set<JMethod> reached = bfs(callGraph, from);
+            for (JMethod to : methods) {
+                boolean expected = reached.contains(to);
+                assertEquals(from + " -> " + to, expected,
+                        reachability.reaches(from, to));
+                if (!expected) {
+                    ++unreachablePairs;
+                }
+                int source = scc.getComponentOf(from);
+                int target = scc.getComponentOf(to);
+                if (source > target && reachability.mayReach(source, target)
+                        && !reachability.isTreeDescendant(source, target)) {
+                    // the labels cannot decide, and the DFS runs
+                    ++fallbackPairs;
+                }
+            }
+        }
+        assertTrue(unreachablePairs > 0);
+        // the diamond left/right -> join has a non-tree edge
+        assertTrue(fallbackPairs > 0);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphSCCTest {
+
+    private static JMethod getMethod(String name) {
+        return World.get().getClassHierarchy()
+                .getClass("CallGraphShapes")
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * @return the callee components of given component in the condensation DAG.
+     */
+    private static Set<Integer> getSuccsOf(CallGraphSCC scc, int component) {
+        Set<Integer> succs = new HashSet<>();
+        for (int i = scc.getSuccsStart(component); i < scc.getSuccsEnd(component); ++i) {
+            succs.add(scc.getSucc(i));
+        }
+        return succs;
+    }
+
+    @Test
+    public void testSCC() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/cha/", "-m", "CallGraphShapes",
+                "-a", "cg=algorithm:cha",
+                "-a", CallGraphSCCBuilder.ID});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        CallGraphSCC scc = World.get().getResult(CallGraphSCCBuilder.ID);
+        JMethod even = getMethod("even");
+        JMethod odd = getMethod("odd");
+        JMethod fact = getMethod("fact");
+        JMethod chain1 = getMethod("chain1");
+        JMethod chain2 = getMethod("chain2");
+        JMethod chain3 = getMethod("chain3");
+
+        // mutual recursion
+        int evenOdd = scc.getComponentOf(even);
+        assertEquals(evenOdd, scc.getComponentOf(odd));
+        assertEquals(Set.of(even, odd), Set.copyOf(scc.getMethodsOf(evenOdd)));
+        assertTrue(scc.isRecursive(evenOdd));
+        // self recursion
+        assertEquals(List.of(fact), scc.getMethodsOf(scc.getComponentOf(fact)));
+        assertTrue(scc.isRecursive(fact));
+        // chain
+        int c1 = scc.getComponentOf(chain1);
+        int c2 = scc.getComponentOf(chain2);
+        int c3 = scc.getComponentOf(chain3);
+        assertNotEquals(c1, c2);
+        assertNotEquals(c2, c3);
+        assertEquals(List.of(chain1), scc.getMethodsOf(c1));
+        assertFalse(scc.isRecursive(chain1));
+        assertFalse(scc.isRecursive(chain3));
+        assertEquals(Set.of(c2), getSuccsOf(scc, c1));
+        assertEquals(Set.of(c3), getSuccsOf(scc, c2));
+        assertTrue(getSuccsOf(scc, c3).isEmpty());
+        // the recursive components have no self edges in the DAG
+        assertTrue(getSuccsOf(scc, evenOdd).isEmpty());
+
+        // the DAG edges are exactly the call edges between components
+        Set<List<Integer>> dagEdges = new HashSet<>();
+        callGraph.reachableMethods().forEach(caller ->
+                callGraph.getSuccsOf(caller).forEach(callee -> {
+                    int from = scc.getComponentOf(caller);
+                    int to = scc.getComponentOf(callee);
+                    if (from != to) {
+                        dagEdges.add(List.of(from, to));
+                    }
+                }));
+        assertEquals(dagEdges.size(), scc.getNumberOfDAGEdges());
+        for (List<Integer> edge : dagEdges) {
+            int from = edge.get(0), to = edge.get(1);
+            assertTrue(getSuccsOf(scc, from).contains(to));
+            boolean hasPred = false;
+            for (int i = scc.getPredsStart(to); i < scc.getPredsEnd(to); ++i) {
+                hasPred |= scc.getPred(i) == from;
+            }
+            assertTrue(hasPred);
+            // the callees come before their callers in bottom-up order
+            assertTrue(to < from);
+            assertTrue(scc.bottomUp().indexOf(scc.getMethodsOf(to))
+                    < scc.bottomUp().indexOf(scc.getMethodsOf(from)));
+        }
+
+        // every method is in exactly one component
+        List<JMethod> members = new ArrayList<>();
+        scc.bottomUp().forEach(members::addAll);
+        assertEquals(callGraph.getNumberOfMethods(), members.size());
+        assertEquals(Set.copyOf(callGraph.reachableMethods().toList()), Set.copyOf(members));
+        List<List<JMethod>> topDown = new ArrayList<>(scc.topDown());
+        Collections.reverse(topDown);
+        assertEquals(scc.bottomUp(), topDown);
+    }
+}
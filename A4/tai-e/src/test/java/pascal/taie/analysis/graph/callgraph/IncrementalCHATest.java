@@ -0,0 +1,206 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.VoidType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalCHATest {
+
+    private static JMethod getMethod(String className, String methodName) {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass jclass = hierarchy.getClass(className);
+        return jclass.getDeclaredMethods()
+                .stream()
+                .filter(m -> m.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Replaces the body of Incremental.foo() by the one of Incremental.bar(),
+     * and checks that the edges of foo() are updated.
+     */
+    @Test
+    public void testMethodChanged() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/cha/", "-m", "Incremental",
+                "-a", "cg=algorithm:cha;incremental:true"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        IncrementalCHABuilder builder = World.get().getResult(IncrementalCHABuilder.ID);
+        JMethod foo = getMethod("Incremental", "foo");
+        JMethod bar = getMethod("Incremental", "bar");
+        assertEquals(Set.of(getMethod("IncOld", "run")), callGraph.getCalleesOfM(foo));
+
+        foo.setMethodSource(bar.getMethodSource());
+        builder.methodChanged(foo);
+        JMethod circleDraw = getMethod("IncCircle", "draw");
+        JMethod squareDraw = getMethod("IncSquare", "draw");
+        assertEquals(Set.of(getMethod("IncCircle", "<init>"), circleDraw, squareDraw),
+                callGraph.getCalleesOfM(foo));
+        assertTrue(callGraph.contains(circleDraw));
+        assertTrue(callGraph.contains(squareDraw));
+        // the call sites in the old body are removed
+        assertTrue(callGraph.getCallSitesIn(foo)
+                .stream()
+                .noneMatch(cs -> cs.getMethodRef().getName().equals("run")));
+        builder.close();
+    }
+
+    /**
+     * Adds IncTriangle, a subclass of IncCircle which overrides draw(),
+     * to the class hierarchy, and checks that only the call sites which
+     * may be dispatched on it gain edges.
+     */
+    @Test
+    public void testClassAdded() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/cha/", "-m", "Incremental",
+                "-a", "cg=algorithm:cha;incremental:true"});
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        IncrementalCHABuilder builder = World.get().getResult(IncrementalCHABuilder.ID);
+        JMethod baz = getMethod("Incremental", "baz");
+        Map<Invoke, Set<JMethod>> oldCallees = callGraph.callSitesIn(baz)
+                .collect(Collectors.toMap(Function.identity(),
+                        cs -> Set.copyOf(callGraph.getCalleesOf(cs))));
+        int oldEdges = callGraph.getNumberOfEdges();
+
+        JClass triangle = newSubclass("IncTriangle", World.get()
+                .getClassHierarchy().getClass("IncCircle"));
+        JMethod triangleDraw = triangle.getDeclaredMethods().iterator().next();
+        World.get().getClassHierarchy().addClass(triangle);
+        assertTrue(callGraph.contains(triangleDraw));
+        // s.draw() (on IncShape) and c.draw() (on IncCircle) gain the new callee
+        assertEquals(oldEdges + 2, callGraph.getNumberOfEdges());
+        callGraph.callSitesIn(baz).forEach(callSite -> {
+            String declaringClass = callSite.getMethodRef()
+                    .getDeclaringClass().getName();
+            Set<JMethod> callees = callGraph.getCalleesOf(callSite);
+            if (callSite.getMethodRef().getName().equals("draw") &&
+                    !declaringClass.equals("IncSquare")) {
+                assertTrue(callSite.toString(), callees.contains(triangleDraw));
+                assertEquals(oldCallees.get(callSite).size() + 1, callees.size());
+            } else {
+                assertFalse(callSite.toString(), callees.contains(triangleDraw));
+                assertEquals(oldCallees.get(callSite), callees);
+            }
+        });
+        builder.close();
+    }
+
+    /**
+     * @return a new application class which extends given superclass
+     * and declares void draw() with the body of the one in superclass.
+     */
+    private static JClass newSubclass(String name, JClass superclass) {
+        JClass jclass = new JClass(superclass.getClassLoader(), name);
+        JMethod superDraw = superclass.getDeclaredMethods()
+                .stream()
+                .filter(m -> m.getName().equals("draw"))
+                .findFirst()
+                .orElseThrow();
+        JMethod draw = new JMethod(jclass, "draw", Set.of(Modifier.PUBLIC),
+                List.of(), VoidType.VOID, List.of(),
+                AnnotationHolder.emptyHolder(), null, superDraw.getMethodSource());
+        jclass.build(new JClassBuilder() {
+            @Override
+            public void build(JClass jclass) {
+            }
+
+            @Override
+            public Set<Modifier> getModifiers() {
+                return Set.of();
+            }
+
+            @Override
+            public String getSimpleName() {
+                return name;
+            }
+
+            @Override
+            public ClassType getClassType() {
+                return World.get().getTypeSystem()
+                        .getClassType(superclass.getClassLoader(), name);
+            }
+
+            @Override
+            public JClass getSuperClass() {
+                return superclass;
+            }
+
+            @Override
+            public Collection<JClass> getInterfaces() {
+                return List.of();
+            }
+
+            @Override
+            public JClass getOuterClass() {
+                return null;
+            }
+
+            @Override
+            public Collection<JField> getDeclaredFields() {
+                return List.of();
+            }
+
+            @Override
+            public Collection<JMethod> getDeclaredMethods() {
+                return List.of(draw);
+            }
+
+            @Override
+            public AnnotationHolder getAnnotationHolder() {
+                return AnnotationHolder.emptyHolder();
+            }
+
+            @Override
+            public boolean isApplication() {
+                return true;
+            }
+        });
+        return jclass;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LibraryCHATest {
+
+    private static final String APPEND =
+            "<java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)>";
+
+    private static final String SUPER_APPEND =
+            "<java.lang.AbstractStringBuilder: java.lang.AbstractStringBuilder append(java.lang.String)>";
+
+    private static CallGraph<Invoke, JMethod> build(String... analyses) {
+        String[] args = new String[]{
+                "-pp", "-cp", "src/test/resources/cha/", "-m", "LibraryCall"};
+        for (String analysis : analyses) {
+            args = append(args, "-a", analysis);
+        }
+        Main.main(args);
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    private static String[] append(String[] args, String... more) {
+        String[] result = new String[args.length + more.length];
+        System.arraycopy(args, 0, result, 0, args.length);
+        System.arraycopy(more, 0, result, args.length, more.length);
+        return result;
+    }
+
+    /**
+     * Neither the construction nor the whole-graph clients expand
+     * the stubs, i.e., the methods reachable only via the stubs
+     * are not in the call graph.
+     */
+    @Test
+    public void testStubsNotExpanded() {
+        CallGraph<Invoke, JMethod> callGraph = build(
+                "cg=algorithm:cha;scope:app;action:stats",
+                CallGraphSCCBuilder.ID);
+        JMethod append = World.get().getClassHierarchy().getJREMethod(APPEND);
+        JMethod superAppend = World.get().getClassHierarchy().getJREMethod(SUPER_APPEND);
+        assertTrue(callGraph.contains(append));
+        assertTrue(callGraph.isStub(append));
+        assertFalse(callGraph.contains(superAppend));
+        int methods = callGraph.getNumberOfMethods();
+        int edges = callGraph.getNumberOfEdges();
+        assertFalse(callGraph.reachableMethods().anyMatch(superAppend::equals));
+        assertFalse(callGraph.getNodes().contains(superAppend));
+        assertTrue(callGraph.getSuccsOf(append).isEmpty());
+        assertFalse(callGraph.edges().anyMatch(edge ->
+                edge.getCallee().equals(superAppend)));
+        callGraph.reachableMethods().forEach(callGraph::getCallersOf);
+        CallGraphSCC scc = World.get().getResult(CallGraphSCCBuilder.ID);
+        assertTrue(scc.getComponentOf(append) >= 0);
+        assertTrue(callGraph.isStub(append));
+        assertFalse(callGraph.contains(superAppend));
+        assertEquals(methods, callGraph.getNumberOfMethods());
+        assertEquals(edges, callGraph.getNumberOfEdges());
+    }
+
+    /**
+     * Querying the call sites of a stub expands it, and then the edges
+     * out of it, and the edges into the methods which are reachable only
+     * via it, are not missed by the queries.
+     */
+    @Test
+    public void testEdgesBehindStubs() {
+        CallGraph<Invoke, JMethod> callGraph = build("cg=algorithm:cha;scope:app");
+        JMethod append = World.get().getClassHierarchy().getJREMethod(APPEND);
+        JMethod superAppend = World.get().getClassHierarchy().getJREMethod(SUPER_APPEND);
+        Set<JMethod> callees = callGraph.callSitesIn(append)
+                .flatMap(callSite -> callGraph.getCalleesOf(callSite).stream())
+                .collect(Collectors.toSet());
+        assertTrue(callees.contains(superAppend));
+        assertFalse(callGraph.isStub(append));
+        assertTrue(callGraph.contains(superAppend));
+        assertFalse(callGraph.getCallersOf(superAppend).isEmpty());
+        assertTrue(callGraph.getPredsOf(superAppend).contains(append));
+        // every callee is reachable
+        callGraph.edges().forEach(edge ->
+                assertTrue(callGraph.contains(edge.getCallee())));
+    }
+}
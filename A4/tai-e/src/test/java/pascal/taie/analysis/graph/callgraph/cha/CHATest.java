@@ -26,9 +26,14 @@ import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
 public class CHATest {
-    
-    protected static void test(String main) {
-        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
+
+    /** @return the options of call graph builder, overridden by the variants. */
+    protected String getOptions() {
+        return "algorithm:cha";
+    }
+
+    protected void test(String main) {
+        Tests.test(main, "src/test/resources/cha/", "cg", getOptions());
     }
 
     @Test
@@ -50,4 +55,13 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    /**
+     * The subclasses which inherit the dispatched method do not stop
+     * the dispatch on their own subclasses.
+     */
+    @Test
+    public void testDeepOverride() {
+        test("DeepOverride");
+    }
 }
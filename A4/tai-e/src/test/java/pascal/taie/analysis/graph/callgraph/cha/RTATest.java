@@ -0,0 +1,43 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph.cha;
+
+import pascal.taie.analysis.Tests;
+
+/**
+ * Runs the test cases of {@link CHATest} with RTA, whose results only
+ * contain the targets dispatched on the instantiated classes.
+ */
+public class RTATest extends CHATest {
+
+    @Override
+    protected String getOptions() {
+        return "algorithm:rta";
+    }
+
+    @Override
+    protected void test(String main) {
+        Tests.testVariant(main, "src/test/resources/cha/", "cg", "rta", getOptions());
+    }
+}
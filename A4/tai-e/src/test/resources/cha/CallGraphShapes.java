@@ -0,0 +1,49 @@
+public class CallGraphShapes {
+
+    public static void main(String[] args) {
+        chain1();
+        even(3);
+        fact(3);
+        left();
+        right();
+    }
+
+    // chain
+    static void chain1() {
+        chain2();
+    }
+
+    static void chain2() {
+        chain3();
+    }
+
+    static void chain3() {
+    }
+
+    // mutual recursion
+    static boolean even(int n) {
+        return n == 0 || odd(n - 1);
+    }
+
+    static boolean odd(int n) {
+        return n != 0 && even(n - 1);
+    }
+
+    // self recursion
+    static int fact(int n) {
+        return n <= 1 ? 1 : n * fact(n - 1);
+    }
+
+    // diamond, which joins the chain
+    static void left() {
+        join();
+    }
+
+    static void right() {
+        join();
+    }
+
+    static void join() {
+        chain3();
+    }
+}
@@ -0,0 +1,23 @@
+public class DeepOverride {
+
+    public static void main(String[] args) {
+        B b = new B();
+        b.foo();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+}
+
+class C extends B {
+}
+
+class D extends C {
+    void foo() {
+    }
+}
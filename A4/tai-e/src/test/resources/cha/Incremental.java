@@ -0,0 +1,44 @@
+public class Incremental {
+
+    public static void main(String[] args) {
+        foo();
+        baz();
+    }
+
+    static void foo() {
+        IncOld.run();
+    }
+
+    static void bar() {
+        IncShape s = new IncCircle();
+        s.draw();
+    }
+
+    static void baz() {
+        IncShape s = new IncCircle();
+        s.draw();
+        IncCircle c = new IncCircle();
+        c.draw();
+        IncSquare q = new IncSquare();
+        q.draw();
+    }
+}
+
+class IncOld {
+    static void run() {
+    }
+}
+
+interface IncShape {
+    void draw();
+}
+
+class IncCircle implements IncShape {
+    public void draw() {
+    }
+}
+
+class IncSquare implements IncShape {
+    public void draw() {
+    }
+}
@@ -0,0 +1,8 @@
+public class LibraryCall {
+
+    public static void main(String[] args) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("x");
+        sb.toString();
+    }
+}
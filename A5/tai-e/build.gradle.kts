@@ -23,6 +23,8 @@ tasks.compileTestJava { options.encoding = "UTF-8" }
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
+    // opt-in benchmark, see ParallelSolverBenchmark
+    System.getProperty("cipta.benchmark")?.let { systemProperty("cipta.benchmark", it) }
 }
 
 java {
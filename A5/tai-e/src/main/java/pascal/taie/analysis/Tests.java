@@ -23,12 +23,16 @@
 package pascal.taie.analysis;
 
 import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.misc.ClassDumper;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Static utility methods for testing.
@@ -49,11 +53,41 @@ public final class Tests {
     private static final boolean DUMP_IR = true;
 
     public static void testCIPTA(String dir, String main, String... opts) {
-        doTestPTA("cipta", dir, main, opts);
+        doTestPTA("cipta", dir, main,
+                GENERATE_EXPECTED_RESULTS ? "dump" : "compare", opts);
     }
 
-    private static void doTestPTA(
-            String id, String dir, String main, String... opts) {
+    /**
+     * Runs cipta on given test case without comparing with the expected
+     * results, so that the results of different runs can be compared
+     * by the callers.
+     *
+     * @return the results of cipta, see {@link #getPTAFacts(String)}.
+     */
+    public static Set<String> analyzeCIPTA(String dir, String main, String... opts) {
+        doTestPTA("cipta", dir, main, null, opts);
+        return getPTAFacts("cipta");
+    }
+
+    /**
+     * @param id ID of the pointer analysis
+     * @return the points-to sets of the variables and the call edges computed
+     * by given pointer analysis, as strings in sorted order.
+     */
+    public static Set<String> getPTAFacts(String id) {
+        PointerAnalysisResult result = World.get().getResult(id);
+        Set<String> facts = new TreeSet<>();
+        result.getVars().forEach(var -> facts.add(var.getMethod() + "/" +
+                var.getName() + " -> " + new TreeSet<>(
+                result.getPointsToSet(var).stream().map(Object::toString).toList())));
+        result.getCallGraph().edges().forEach(edge ->
+                facts.add(edge.getCallSite().getContainer() + "/" +
+                        edge.getCallSite().getIndex() + " => " + edge.getCallee()));
+        return facts;
+    }
+
+    private static void doTestPTA(String id, String dir, String main,
+                                  String action, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         String classPath = "src/test/resources/pta/" + dir;
@@ -65,10 +99,11 @@ public final class Tests {
         }
         List<String> ptaArgs = new ArrayList<>();
         ptaArgs.add("implicit-entries:false");
-        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        ptaArgs.add("action:" + action);
-        String file = getExpectedFile(classPath, main, id);
-        ptaArgs.add("file:" + file);
+        if (action != null) {
+            ptaArgs.add("action:" + action);
+            String file = getExpectedFile(classPath, main, id);
+            ptaArgs.add("file:" + file);
+        }
         boolean specifyOnlyApp = false;
         for (String opt : opts) {
             ptaArgs.add(opt);
@@ -55,7 +55,7 @@ public class CallGraphBuilder extends ProgramAnalysis {
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
         CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
-            case "pta", "cipta", "cspta" -> new PTABasedBuilder(algorithm);
+            case "pta", "cipta", "cspta", "steensgaard" -> new PTABasedBuilder(algorithm);
             default -> throw new ConfigException(
                     "Unknown call graph building algorithm: " + algorithm);
         };
@@ -37,7 +37,8 @@ class ArrayIndex extends Pointer {
 
     private final Obj array;
 
-    ArrayIndex(Obj array) {
+    ArrayIndex(Obj array, PointsToSet pointsToSet) {
+        super(pointsToSet);
         this.array = array;
     }
 
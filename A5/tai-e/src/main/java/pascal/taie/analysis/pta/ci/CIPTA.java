@@ -27,6 +27,7 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 
 /**
  * Context-insensitive pointer analysis.
@@ -42,7 +43,14 @@ public class CIPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
+        int threads = getOptions().getInt("threads");
+        if (threads < 1) {
+            throw new ConfigException("Invalid number of threads: " + threads);
+        }
+        boolean devirtualize = getOptions().getBoolean("devirtualize");
+        int parallelThreshold = getOptions().getInt("parallel-threshold");
+        Solver solver = threads == 1 ? new Solver(heapModel, devirtualize)
+                : new ParallelSolver(heapModel, devirtualize, threads, parallelThreshold);
         solver.solve();
         CIPTAResult result = solver.getResult();
         new ResultProcessor(getOptions()).process(result);
@@ -35,7 +35,8 @@ class InstanceField extends Pointer {
 
     private final JField field;
 
-    InstanceField(Obj base, JField field) {
+    InstanceField(Obj base, JField field, PointsToSet pointsToSet) {
+        super(pointsToSet);
         this.base = base;
         this.field = field;
     }
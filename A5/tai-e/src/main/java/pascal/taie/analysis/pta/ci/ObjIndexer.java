@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense indexes (0, 1, 2, ...) to the abstract objects,
+ * so that the points-to sets can be stored as bit sets.
+ * The solver indexes each object when it obtains the object
+ * from the heap model.
+ */
+class ObjIndexer {
+
+    private final Map<Obj, Integer> indexes = Maps.newMap();
+
+    private final List<Obj> objs = new ArrayList<>();
+
+    /**
+     * @return the index of given object. If the object has not been
+     * indexed, assigns the next index to it.
+     */
+    int getIndex(Obj obj) {
+        Integer index = indexes.get(obj);
+        if (index == null) {
+            index = objs.size();
+            indexes.put(obj, index);
+            objs.add(obj);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of given object, or -1 if the object has not
+     * been indexed. Different from {@link #getIndex(Obj)}, this method
+     * never assigns index to the object.
+     */
+    int findIndex(Obj obj) {
+        Integer index = indexes.get(obj);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the object of given index.
+     */
+    Obj getObj(int index) {
+        return objs.get(index);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline variable substitution, which finds the variables whose
+ * points-to sets are always equal before solving.
+ * <p>
+ * If the only definitions of variable x are copies {@code x = y}
+ * from the same variable y, and x is neither parameter nor this variable
+ * (which receive objects from callers), then y is the only source of
+ * the objects of x, thus pt(x) = pt(y). Such a copy chain is collapsed
+ * into its source, which represents all variables on the chain in
+ * the pointer flow graph. The variables on a copy cycle without other
+ * sources are collapsed into one of them.
+ * <p>
+ * The analysis works on one method at a time, as the solver discovers
+ * the reachable methods on the fly.
+ */
+class OfflineVarSubstitution {
+
+    private OfflineVarSubstitution() {
+    }
+
+    /**
+     * @return the map from each collapsed variable in given IR
+     * to its representative variable.
+     */
+    static Map<Var, Var> compute(IR ir) {
+        // source of the copies defining each variable
+        Map<Var, Var> copySources = Maps.newMap();
+        Set<Var> ineligible = Sets.newSet();
+        ineligible.addAll(ir.getParams());
+        if (ir.getThis() != null) {
+            ineligible.add(ir.getThis());
+        }
+        for (Stmt stmt : ir) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    if (stmt instanceof Copy copy
+                            && !copy.getRValue().equals(var)
+                            && copySources.getOrDefault(var, copy.getRValue())
+                            .equals(copy.getRValue())) {
+                        copySources.put(var, copy.getRValue());
+                    } else {
+                        ineligible.add(var);
+                    }
+                }
+            });
+        }
+        copySources.keySet().removeAll(ineligible);
+        if (copySources.isEmpty()) {
+            return Map.of();
+        }
+        // union the variables with their copy sources
+        Map<Var, Var> parents = Maps.newMap();
+        copySources.forEach((var, source) -> {
+            Var root = find(parents, var);
+            Var sourceRoot = find(parents, source);
+            if (root != sourceRoot) {
+                parents.put(root, sourceRoot);
+            }
+        });
+        // select representatives: the variable which is not collapsed
+        // (i.e., the source of the chains), or any variable of a cycle
+        Map<Var, Var> representatives = Maps.newMap();
+        List.copyOf(parents.keySet()).forEach(var -> {
+            if (!copySources.containsKey(var)) {
+                representatives.put(find(parents, var), var);
+            }
+        });
+        Map<Var, Var> result = Maps.newMap();
+        copySources.keySet().forEach(var -> {
+            Var root = find(parents, var);
+            Var rep = representatives.computeIfAbsent(root, r -> r);
+            if (!var.equals(rep)) {
+                result.put(var, rep);
+            }
+        });
+        return result;
+    }
+
+    private static Var find(Map<Var, Var> parents, Var var) {
+        Var root = var;
+        for (Var parent; (parent = parents.get(root)) != null && parent != root; ) {
+            root = parent;
+        }
+        // path compression
+        for (Var v = var; v != root; ) {
+            Var next = parents.get(v);
+            parents.put(v, root);
+            v = next;
+        }
+        parents.putIfAbsent(root, root);
+        return root;
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pointer analysis solver which propagates points-to sets by waves
+ * with multiple threads.
+ * <p>
+ * The solver works in rounds. In each round, it:
+ * <ol>
+ *     <li>collapses the cycles of the PFG which are closed by the edges
+ *     added since the previous round,</li>
+ *     <li>merges the pending work-list entries into the points-to sets,</li>
+ *     <li>propagates the new objects along the part of PFG reachable from
+ *     the changed pointers in topological order, where the components
+ *     at the same level are processed in parallel,</li>
+ *     <li>adds the field, array and call edges discovered by the new
+ *     objects of variables, which produces work-list entries
+ *     for the next round.</li>
+ * </ol>
+ * The state of the solver is stored in arrays indexed by the pointer ids
+ * of {@link PointerFlowGraph}, and the collapsed components are kept
+ * across rounds, as the edges of PFG are never removed. Thus, the cycles
+ * are searched only from the sources of the new edges, i.e., every new
+ * cycle must contain a new edge.
+ * <p>
+ * Each component only writes the points-to sets of its own pointers and
+ * reads the new objects of its predecessors which were computed at the
+ * previous levels, thus the propagation needs no locks. The edges are
+ * added by the calling thread, so the results are the same as
+ * {@link Solver}.
+ */
+class ParallelSolver extends Solver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    private final int threads;
+
+    /**
+     * Levels which have fewer components than this threshold are
+     * processed by the calling thread.
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Sources of the PFG edges added since the previous round.
+     */
+    private int[] newEdgeSources = new int[64];
+
+    private int nNewEdgeSources = 0;
+
+    /**
+     * Number of pointers covered by the arrays below.
+     */
+    private int capacity = 0;
+
+    /**
+     * Representative of the component of each pointer. The representatives
+     * are updated eagerly when the components are merged, so that they
+     * can be read by multiple threads without path compression.
+     */
+    private int[] reps = new int[0];
+
+    /**
+     * Members of each component are linked in a circular list.
+     */
+    private int[] nextMembers = new int[0];
+
+    /**
+     * New objects of the pointers merged from work-list entries.
+     */
+    private PointsToSet[] seeds = new PointsToSet[0];
+
+    /**
+     * Pointers which have seeds in current round.
+     */
+    private int[] seeded = new int[0];
+
+    private int nSeeded;
+
+    /**
+     * New objects of the pointers in current round.
+     */
+    private PointsToSet[] deltas = new PointsToSet[0];
+
+    /**
+     * marks[v] == epoch iff component v is visited by current traversal.
+     */
+    private int[] marks = new int[0];
+
+    private int epoch = 0;
+
+    /**
+     * Components reachable from the seeds in topological order.
+     */
+    private int[] order = new int[0];
+
+    private int nOrder;
+
+    /**
+     * Number of unprocessed predecessors of each component.
+     */
+    private int[] inCounts = new int[0];
+
+    // states of Tarjan's algorithm
+    private int[] indexes = new int[0];
+
+    private int[] lows = new int[0];
+
+    private boolean[] onStack = new boolean[0];
+
+    private int[] stack = new int[0];
+
+    private int[] callStack = new int[0];
+
+    /**
+     * The member and the successor index where the search of each
+     * component continues.
+     */
+    private int[] cursorMembers = new int[0];
+
+    private int[] cursorSuccs = new int[0];
+
+    ParallelSolver(HeapModel heapModel, boolean devirtualize,
+                   int threads, int parallelThreshold) {
+        super(heapModel, devirtualize);
+        this.threads = threads;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    void onNewPFGEdge(Pointer source, Pointer target) {
+        if (nNewEdgeSources == newEdgeSources.length) {
+            newEdgeSources = Arrays.copyOf(newEdgeSources, nNewEdgeSources * 2);
+        }
+        newEdgeSources[nNewEdgeSources++] = source.getId();
+    }
+
+    @Override
+    void analyze() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int rounds = 0;
+            while (!getWorkList().isEmpty()) {
+                ensureCapacity(getPointerFlowGraph().getNumberOfPointers());
+                collapseNewCycles();
+                mergeWorkList();
+                propagate(pool, computeLevels());
+                addNewEdges();
+                ++rounds;
+            }
+            logger.info("Wave propagation finished in {} rounds with {} threads",
+                    rounds, threads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Grows the arrays to cover the pointers added since the previous round.
+     */
+    private void ensureCapacity(int n) {
+        if (n <= capacity) {
+            return;
+        }
+        int length = Math.max(n, capacity * 2);
+        reps = Arrays.copyOf(reps, length);
+        nextMembers = Arrays.copyOf(nextMembers, length);
+        for (int v = capacity; v < length; ++v) {
+            reps[v] = v;
+            nextMembers[v] = v;
+        }
+        seeds = Arrays.copyOf(seeds, length);
+        seeded = Arrays.copyOf(seeded, length);
+        deltas = Arrays.copyOf(deltas, length);
+        marks = Arrays.copyOf(marks, length);
+        order = Arrays.copyOf(order, length);
+        inCounts = Arrays.copyOf(inCounts, length);
+        indexes = Arrays.copyOf(indexes, length);
+        lows = Arrays.copyOf(lows, length);
+        onStack = Arrays.copyOf(onStack, length);
+        stack = Arrays.copyOf(stack, length);
+        callStack = Arrays.copyOf(callStack, length);
+        cursorMembers = Arrays.copyOf(cursorMembers, length);
+        cursorSuccs = Arrays.copyOf(cursorSuccs, length);
+        capacity = length;
+    }
+
+    /**
+     * Searches the strongly connected components from the sources of
+     * the new edges by iterative Tarjan's algorithm on the graph of
+     * components, and merges the components on each new cycle.
+     */
+    private void collapseNewCycles() {
+        ++epoch;
+        int sp = 0, counter = 0;
+        for (int i = 0; i < nNewEdgeSources; ++i) {
+            int root = reps[newEdgeSources[i]];
+            if (marks[root] == epoch) {
+                continue;
+            }
+            int csp = 0;
+            callStack[csp++] = root;
+            visit(root, counter++);
+            stack[sp++] = root;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                int w = nextSucc(v);
+                if (w != -1) {
+                    if (marks[w] != epoch) {
+                        visit(w, counter++);
+                        stack[sp++] = w;
+                        callStack[csp++] = w;
+                    } else if (onStack[w]) {
+                        lows[v] = Math.min(lows[v], indexes[w]);
+                    }
+                } else {
+                    --csp;
+                    if (csp > 0) {
+                        int u = callStack[csp - 1];
+                        lows[u] = Math.min(lows[u], lows[v]);
+                    }
+                    if (lows[v] == indexes[v]) {
+                        int u;
+                        do {
+                            u = stack[--sp];
+                            onStack[u] = false;
+                            if (u != v) {
+                                merge(v, u);
+                            }
+                        } while (u != v);
+                    }
+                }
+            }
+        }
+        nNewEdgeSources = 0;
+    }
+
+    private void visit(int v, int index) {
+        marks[v] = epoch;
+        indexes[v] = lows[v] = index;
+        onStack[v] = true;
+        cursorMembers[v] = v;
+        cursorSuccs[v] = 0;
+    }
+
+    /**
+     * @return the next successor component of component v in the search,
+     * or -1 if all successors have been visited.
+     */
+    private int nextSucc(int v) {
+        PointerFlowGraph pointerFlowGraph = getPointerFlowGraph();
+        while (true) {
+            int m = cursorMembers[v];
+            if (cursorSuccs[v] < pointerFlowGraph.getSuccCount(m)) {
+                int w = reps[pointerFlowGraph.getSucc(m, cursorSuccs[v]++)];
+                if (w != v) {
+                    return w;
+                }
+            } else {
+                m = nextMembers[m];
+                if (m == v) {
+                    return -1;
+                }
+                cursorMembers[v] = m;
+                cursorSuccs[v] = 0;
+            }
+        }
+    }
+
+    /**
+     * Merges component u into component v.
+     */
+    private void merge(int v, int u) {
+        int m = u;
+        do {
+            reps[m] = v;
+            m = nextMembers[m];
+        } while (m != u);
+        int next = nextMembers[v];
+        nextMembers[v] = nextMembers[u];
+        nextMembers[u] = next;
+    }
+
+    /**
+     * Merges the pending work-list entries into the points-to sets,
+     * and records the new objects as seeds.
+     */
+    private void mergeWorkList() {
+        WorkList workList = getWorkList();
+        nSeeded = 0;
+        while (!workList.isEmpty()) {
+            WorkList.Entry entry = workList.pollEntry();
+            Pointer pointer = entry.pointer();
+            PointsToSet diff = pointer.getPointsToSet()
+                    .addAllDiff(entry.pointsToSet());
+            if (!diff.isEmpty()) {
+                int id = pointer.getId();
+                if (seeds[id] == null) {
+                    seeds[id] = diff;
+                    seeded[nSeeded++] = id;
+                } else {
+                    seeds[id].addAllDiff(diff);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the components reachable from the seeds topologically, and
+     * groups them by the lengths of the longest paths reaching them,
+     * so that the components at the same level are independent
+     * of each other.
+     *
+     * @return the components grouped by levels.
+     */
+    private List<int[]> computeLevels() {
+        PointerFlowGraph pointerFlowGraph = getPointerFlowGraph();
+        // collect the reachable components and count their predecessors
+        ++epoch;
+        nOrder = 0;
+        for (int i = 0; i < nSeeded; ++i) {
+            int c = reps[seeded[i]];
+            if (marks[c] != epoch) {
+                marks[c] = epoch;
+                inCounts[c] = 0;
+                order[nOrder++] = c;
+            }
+        }
+        for (int i = 0; i < nOrder; ++i) {
+            int c = order[i];
+            int m = c;
+            do {
+                for (int j = 0; j < pointerFlowGraph.getSuccCount(m); ++j) {
+                    int d = reps[pointerFlowGraph.getSucc(m, j)];
+                    if (d != c) {
+                        if (marks[d] != epoch) {
+                            marks[d] = epoch;
+                            inCounts[d] = 0;
+                            order[nOrder++] = d;
+                        }
+                        ++inCounts[d];
+                    }
+                }
+                m = nextMembers[m];
+            } while (m != c);
+        }
+        // reorder them level by level, the components of a level are
+        // appended when all of their predecessors have been appended
+        int n = 0;
+        for (int i = 0; i < nOrder; ++i) {
+            if (inCounts[order[i]] == 0) {
+                order[n++] = order[i];
+            }
+        }
+        List<int[]> levels = new ArrayList<>();
+        int start = 0;
+        while (start < n) {
+            int end = n;
+            for (int i = start; i < end; ++i) {
+                int c = order[i];
+                int m = c;
+                do {
+                    for (int j = 0; j < pointerFlowGraph.getSuccCount(m); ++j) {
+                        int d = reps[pointerFlowGraph.getSucc(m, j)];
+                        if (d != c && --inCounts[d] == 0) {
+                            order[n++] = d;
+                        }
+                    }
+                    m = nextMembers[m];
+                } while (m != c);
+            }
+            levels.add(Arrays.copyOfRange(order, start, end));
+            start = end;
+        }
+        return levels;
+    }
+
+    /**
+     * Propagates the new objects level by level.
+     */
+    private void propagate(ForkJoinPool pool, List<int[]> levels) {
+        for (int[] level : levels) {
+            if (level.length < parallelThreshold) {
+                for (int comp : level) {
+                    propagate(comp);
+                }
+            } else {
+                pool.submit(() -> Arrays.stream(level)
+                        .parallel()
+                        .forEach(this::propagate)).join();
+            }
+        }
+    }
+
+    /**
+     * Propagates the new objects to the pointers of given component.
+     * All pointers in a component have the same points-to set
+     * after propagation.
+     */
+    private void propagate(int comp) {
+        PointerFlowGraph pointerFlowGraph = getPointerFlowGraph();
+        PointsToSet in = new PointsToSet(getObjIndexer());
+        int v = comp;
+        do {
+            if (seeds[v] != null) {
+                in.addAllDiff(seeds[v]);
+            }
+            for (int i = 0; i < pointerFlowGraph.getPredCount(v); ++i) {
+                int u = pointerFlowGraph.getPred(v, i);
+                // the predecessors out of this round have no deltas
+                if (deltas[u] != null && reps[u] != comp) {
+                    in.addAllDiff(deltas[u]);
+                }
+            }
+            v = nextMembers[v];
+        } while (v != comp);
+        do {
+            PointsToSet delta = pointerFlowGraph.getPointer(v)
+                    .getPointsToSet().addAllDiff(in);
+            if (seeds[v] != null) {
+                // the seed has been merged into points-to set
+                delta.addAllDiff(seeds[v]);
+            }
+            if (!delta.isEmpty()) {
+                deltas[v] = delta;
+            }
+            v = nextMembers[v];
+        } while (v != comp);
+    }
+
+    /**
+     * Adds the edges discovered by the new objects of variables,
+     * and clears the states of current round.
+     */
+    private void addNewEdges() {
+        PointerFlowGraph pointerFlowGraph = getPointerFlowGraph();
+        for (int i = 0; i < nOrder; ++i) {
+            int comp = order[i];
+            int v = comp;
+            do {
+                if (deltas[v] != null
+                        && pointerFlowGraph.getPointer(v) instanceof VarPtr varPtr) {
+                    processFieldAndArrayAccessAndCall(varPtr, deltas[v]);
+                }
+                deltas[v] = null;
+                seeds[v] = null;
+                v = nextMembers[v];
+            } while (v != comp);
+        }
+    }
+}
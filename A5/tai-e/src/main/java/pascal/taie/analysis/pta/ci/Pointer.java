@@ -29,7 +29,25 @@ package pascal.taie.analysis.pta.ci;
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    private final PointsToSet pointsToSet;
+
+    /**
+     * Dense index of this pointer, which is assigned by
+     * {@link PointerFlowGraph} when this pointer is added to it.
+     */
+    private int id = -1;
+
+    Pointer(PointsToSet pointsToSet) {
+        this.pointsToSet = pointsToSet;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
 
     PointsToSet getPointsToSet() {
         return pointsToSet;
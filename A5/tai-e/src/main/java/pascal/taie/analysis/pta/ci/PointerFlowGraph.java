@@ -25,29 +25,68 @@ package pascal.taie.analysis.pta.ci;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.Sets;
-import pascal.taie.util.collection.TwoKeyMap;
+import pascal.taie.util.collection.SparseBitSet;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * The pointers are assigned dense ids (see {@link Pointer#getId()}),
+ * and the graph is stored in arrays indexed by the ids:
+ * <ul>
+ *     <li>Var nodes are indexed by global variable numbers, i.e.,
+ *     the offset of the variables of the container method plus
+ *     the index of the variable in the method,</li>
+ *     <li>InstanceField nodes are stored in an open-addressing table
+ *     keyed by (object index, field number), and ArrayIndex nodes
+ *     are indexed by object indexes,</li>
+ *     <li>successors and predecessors of each node are stored as int
+ *     arrays of ids, and duplicate edges are filtered by a bit set.</li>
+ * </ul>
  */
 class PointerFlowGraph {
 
+    private static final int[] EMPTY = new int[0];
+
+    private final ObjIndexer indexer;
+
+    /**
+     * List of all pointers in this PFG, indexed by ids.
+     */
+    private final List<Pointer> pointers = new ArrayList<>();
+
+    /**
+     * Map from method to the offset of its variables in global numbering.
+     */
+    private final Map<JMethod, Integer> varOffsets = Maps.newMap();
+
+    private int nextVarOffset = 0;
+
     /**
-     * Set of all pointer in this PFG.
+     * Cache of the last looked-up method, as the variables are usually
+     * looked up method by method.
      */
-    private final Set<Pointer> pointers = Sets.newSet();
+    private JMethod lastMethod;
+
+    private int lastVarOffset;
 
     /**
-     * Map from Variable to Var node.
+     * Var nodes indexed by global variable numbers.
      */
-    private final Map<Var, VarPtr> varPtrs = Maps.newMap();
+    private VarPtr[] varPtrs = new VarPtr[64];
+
+    /**
+     * Whether the collapsed variables have been expanded.
+     */
+    private boolean expanded = false;
 
     /**
      * Map from JField to StaticField node.
@@ -55,47 +94,148 @@ class PointerFlowGraph {
     private final Map<JField, StaticField> staticFields = Maps.newMap();
 
     /**
-     * Map from (Obj, Field) to InstanceField node.
+     * Map from JField to its number, used in the keys of instanceFields.
+     */
+    private final Map<JField, Integer> fieldNumbers = Maps.newMap();
+
+    private final InstanceFieldTable instanceFields = new InstanceFieldTable();
+
+    /**
+     * ArrayIndex nodes indexed by object indexes.
      */
-    private final TwoKeyMap<Obj, JField, InstanceField> instanceFields = Maps.newTwoKeyMap();
+    private ArrayIndex[] arrayIndexes = new ArrayIndex[64];
 
     /**
-     * Map from Obj (array) to ArrayIndex node.
+     * Successors of each node, the first succCounts[id] elements are valid.
      */
-    private final Map<Obj, ArrayIndex> arrayIndexes = Maps.newMap();
+    private int[][] succs = new int[64][];
+
+    private int[] succCounts = new int[64];
 
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * Successors of each node, used to filter duplicate edges.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private SparseBitSet[] succSets = new SparseBitSet[64];
+
+    /**
+     * Predecessors of each node, the first predCounts[id] elements are valid.
+     */
+    private int[][] preds = new int[64][];
+
+    private int[] predCounts = new int[64];
+
+    PointerFlowGraph(ObjIndexer indexer) {
+        this.indexer = indexer;
+    }
 
     /**
      * Returns all pointers in this PFG.
      */
-    Set<Pointer> getPointers() {
-        return Collections.unmodifiableSet(pointers);
+    List<Pointer> getPointers() {
+        return Collections.unmodifiableList(pointers);
+    }
+
+    /**
+     * Assigns id to the new pointer and adds it to this PFG.
+     */
+    private <P extends Pointer> P addPointer(P pointer) {
+        int id = pointers.size();
+        pointer.setId(id);
+        pointers.add(pointer);
+        if (id == succs.length) {
+            int length = id * 2;
+            succs = Arrays.copyOf(succs, length);
+            succCounts = Arrays.copyOf(succCounts, length);
+            succSets = Arrays.copyOf(succSets, length);
+            preds = Arrays.copyOf(preds, length);
+            predCounts = Arrays.copyOf(predCounts, length);
+        }
+        return pointer;
+    }
+
+    /**
+     * @return the global number of given variable.
+     */
+    private int getVarNumber(Var var) {
+        JMethod method = var.getMethod();
+        if (method != lastMethod) {
+            lastMethod = method;
+            lastVarOffset = varOffsets.computeIfAbsent(method, m -> {
+                int offset = nextVarOffset;
+                nextVarOffset += m.getIR().getVars().size();
+                return offset;
+            });
+        }
+        int number = lastVarOffset + var.getIndex();
+        if (number >= varPtrs.length) {
+            varPtrs = Arrays.copyOf(varPtrs,
+                    Math.max(varPtrs.length * 2, number + 1));
+        }
+        return number;
     }
 
     /**
      * @return the corresponding Var node for the given variable.
      */
     VarPtr getVarPtr(Var var) {
-        return varPtrs.computeIfAbsent(var, v -> {
-            VarPtr varPtr = new VarPtr(v);
-            pointers.add(varPtr);
-            return varPtr;
+        int number = getVarNumber(var);
+        VarPtr varPtr = varPtrs[number];
+        if (varPtr == null) {
+            varPtr = addPointer(new VarPtr(var, new PointsToSet(indexer)));
+            varPtrs[number] = varPtr;
+        }
+        return varPtr;
+    }
+
+    /**
+     * Collapses the variables into their representatives, i.e., the Var
+     * nodes of the representatives also represent the collapsed variables.
+     * This must be called before the Var nodes of the collapsed variables
+     * are created.
+     *
+     * @param representatives map from collapsed variable to its representative.
+     */
+    void collapseVars(Map<Var, Var> representatives) {
+        representatives.forEach((var, rep) -> {
+            VarPtr repPtr = getVarPtr(rep);
+            repPtr.addCollapsedVar(var);
+            // getVarNumber() may grow varPtrs, thus it must be called
+            // before varPtrs is evaluated for the assignment
+            int number = getVarNumber(var);
+            varPtrs[number] = repPtr;
         });
     }
 
+    /**
+     * Creates a Var node for each collapsed variable, which shares
+     * the points-to set of its representative. This is called after
+     * solving, so that the results cover all variables. The variables
+     * are expanded only once even if this is called multiple times.
+     */
+    void expandCollapsedVars() {
+        if (expanded) {
+            return;
+        }
+        expanded = true;
+        for (Pointer pointer : List.copyOf(pointers)) {
+            if (pointer instanceof VarPtr varPtr) {
+                varPtr.getVars().forEach(var -> {
+                    if (!var.equals(varPtr.getVar())) {
+                        int number = getVarNumber(var);
+                        varPtrs[number] = addPointer(
+                                new VarPtr(var, varPtr.getPointsToSet()));
+                    }
+                });
+            }
+        }
+    }
+
     /**
      * @return the corresponding StaticField node for the given static field.
      */
     StaticField getStaticField(JField field) {
-        return staticFields.computeIfAbsent(field, f -> {
-            StaticField staticField = new StaticField(f);
-            pointers.add(staticField);
-            return staticField;
-        });
+        return staticFields.computeIfAbsent(field, f ->
+                addPointer(new StaticField(f, new PointsToSet(indexer))));
     }
 
     /**
@@ -103,22 +243,33 @@ class PointerFlowGraph {
      * and instance field.
      */
     InstanceField getInstanceField(Obj base, JField field) {
-        return instanceFields.computeIfAbsent(base, field, (b, f) -> {
-                InstanceField instanceField = new InstanceField(b, f);
-                pointers.add(instanceField);
-                return instanceField;
-            });
+        int fieldNumber = fieldNumbers.computeIfAbsent(field,
+                f -> fieldNumbers.size());
+        long key = ((long) indexer.getIndex(base) << 32) | fieldNumber;
+        InstanceField instanceField = instanceFields.get(key);
+        if (instanceField == null) {
+            instanceField = addPointer(
+                    new InstanceField(base, field, new PointsToSet(indexer)));
+            instanceFields.put(key, instanceField);
+        }
+        return instanceField;
     }
 
     /**
      * @return the corresponding ArrayIndex node for the given array object.
      */
     ArrayIndex getArrayIndex(Obj array) {
-        return arrayIndexes.computeIfAbsent(array, a -> {
-            ArrayIndex arrayIndex = new ArrayIndex(a);
-            pointers.add(arrayIndex);
-            return arrayIndex;
-        });
+        int index = indexer.getIndex(array);
+        if (index >= arrayIndexes.length) {
+            arrayIndexes = Arrays.copyOf(arrayIndexes,
+                    Math.max(arrayIndexes.length * 2, index + 1));
+        }
+        ArrayIndex arrayIndex = arrayIndexes[index];
+        if (arrayIndex == null) {
+            arrayIndex = addPointer(new ArrayIndex(array, new PointsToSet(indexer)));
+            arrayIndexes[index] = arrayIndex;
+        }
+        return arrayIndex;
     }
 
     /**
@@ -128,13 +279,164 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        int s = source.getId(), t = target.getId();
+        SparseBitSet succSet = succSets[s];
+        if (succSet == null) {
+            succSet = succSets[s] = new SparseBitSet();
+        }
+        if (!succSet.add(t)) {
+            return false;
+        }
+        succs[s] = append(succs[s], succCounts[s]++, t);
+        preds[t] = append(preds[t], predCounts[t]++, s);
+        return true;
+    }
+
+    /**
+     * Stores id at given position of the array, and grows the array
+     * if necessary.
+     *
+     * @return the array containing id.
+     */
+    private static int[] append(int[] array, int pos, int id) {
+        if (array == null) {
+            array = new int[4];
+        } else if (pos == array.length) {
+            array = Arrays.copyOf(array, pos * 2);
+        }
+        array[pos] = id;
+        return array;
+    }
+
+    /**
+     * @return the number of predecessors of given pointer.
+     */
+    int getInDegreeOf(Pointer pointer) {
+        return predCounts[pointer.getId()];
+    }
+
+    /**
+     * @return the number of pointers in this PFG, i.e., the upper bound
+     * of the pointer ids.
+     */
+    int getNumberOfPointers() {
+        return pointers.size();
+    }
+
+    /**
+     * @return the pointer of given id.
+     */
+    Pointer getPointer(int id) {
+        return pointers.get(id);
+    }
+
+    /**
+     * @return the number of successors of the pointer of given id.
+     */
+    int getSuccCount(int id) {
+        return succCounts[id];
+    }
+
+    /**
+     * @return the id of the i-th successor of the pointer of given id.
+     */
+    int getSucc(int id, int i) {
+        return succs[id][i];
+    }
+
+    /**
+     * @return the number of predecessors of the pointer of given id.
+     */
+    int getPredCount(int id) {
+        return predCounts[id];
+    }
+
+    /**
+     * @return the id of the i-th predecessor of the pointer of given id.
+     */
+    int getPred(int id, int i) {
+        return preds[id][i];
     }
 
     /**
      * @return successors of given pointer in the PFG.
+     * The returned list is a view of the successor array of the pointer.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+    List<Pointer> getSuccsOf(Pointer pointer) {
+        int id = pointer.getId();
+        int[] succ = succs[id] != null ? succs[id] : EMPTY;
+        int count = succCounts[id];
+        return new AbstractList<>() {
+
+            @Override
+            public Pointer get(int index) {
+                return pointers.get(succ[index]);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Open-addressing hash table from long keys to InstanceField nodes.
+     */
+    private static class InstanceFieldTable {
+
+        private long[] keys = new long[64];
+
+        private InstanceField[] values = new InstanceField[64];
+
+        private int size = 0;
+
+        private InstanceField get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Puts a key which is not in this table.
+         */
+        private void put(long key, InstanceField value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            insert(key, value);
+            ++size;
+        }
+
+        private void insert(long key, InstanceField value) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            InstanceField[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new InstanceField[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; ++i) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
     }
 }
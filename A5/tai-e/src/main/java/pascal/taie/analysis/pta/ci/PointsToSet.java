@@ -23,33 +23,48 @@
 package pascal.taie.analysis.pta.ci;
 
 import pascal.taie.analysis.pta.core.heap.Obj;
-import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SparseBitSet;
 
-import java.util.Collections;
+import java.util.AbstractSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents of points-to sets.
+ * <p>
+ * The objects are stored as a sparse bit set of their indexes given by
+ * {@link ObjIndexer}, so that the propagation of points-to sets
+ * ({@link #addAllDiff(PointsToSet)}) works on whole words.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private final ObjIndexer indexer;
+
+    private final SparseBitSet bits;
 
     /**
      * Constructs an empty points-to set.
      */
-    PointsToSet() {
+    PointsToSet(ObjIndexer indexer) {
+        this(indexer, new SparseBitSet());
     }
 
     /**
      * Constructs a points-to set containing one object.
      */
-    PointsToSet(Obj obj) {
+    PointsToSet(ObjIndexer indexer, Obj obj) {
+        this(indexer);
         addObject(obj);
     }
 
+    private PointsToSet(ObjIndexer indexer, SparseBitSet bits) {
+        this.indexer = indexer;
+        this.bits = bits;
+    }
+
     /**
      * Adds an object to this set.
      *
@@ -57,51 +72,98 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
-        return set.add(obj);
+        return bits.add(indexer.getIndex(obj));
+    }
+
+    /**
+     * Adds all objects of given points-to set to this set.
+     *
+     * @return a new points-to set of the objects that were not in this set,
+     * i.e., the objects added by this call.
+     */
+    PointsToSet addAllDiff(PointsToSet pts) {
+        return new PointsToSet(indexer, bits.addAllDiff(pts.bits));
+    }
+
+    /**
+     * @return a new points-to set containing the same objects as this set.
+     */
+    PointsToSet copy() {
+        return new PointsToSet(indexer, bits.copy());
     }
 
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
     boolean contains(Obj obj) {
-        return set.contains(obj);
+        // the object which has not been indexed is not in any points-to set
+        int index = indexer.findIndex(obj);
+        return index != -1 && bits.contains(index);
     }
 
     /**
      * @return whether this set if empty.
      */
     boolean isEmpty() {
-        return set.isEmpty();
+        return bits.isEmpty();
     }
 
     /**
      * @return the number of objects in this set.
      */
     int size() {
-        return set.size();
+        return bits.size();
     }
 
     /**
      * @return all objects in this set.
      */
     Stream<Obj> objects() {
-        return set.stream();
+        return StreamSupport.stream(spliterator(), false);
     }
 
     /**
      * @return all objects in this set.
      */
     Set<Obj> getObjects() {
-        return Collections.unmodifiableSet(set);
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Obj> iterator() {
+                return PointsToSet.this.iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Obj obj && PointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public int size() {
+                return PointsToSet.this.size();
+            }
+        };
     }
 
     @Override
     public Iterator<Obj> iterator() {
-        return set.iterator();
+        PrimitiveIterator.OfInt iterator = bits.iterator();
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Obj next() {
+                return indexer.getObj(iterator.nextInt());
+            }
+        };
     }
 
     @Override
     public String toString() {
-        return set.toString();
+        return getObjects().toString();
     }
 }
@@ -28,6 +28,7 @@ import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Devirtualizer;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -47,6 +48,8 @@ class Solver {
 
     private final HeapModel heapModel;
 
+    private final boolean devirtualize;
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -57,8 +60,17 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    private Devirtualizer devirtualizer;
+
+    private ObjIndexer objIndexer;
+
+    /**
+     * @param devirtualize if true, the call sites which CHA proves
+     *                     monomorphic are bound without dispatch.
+     */
+    Solver(HeapModel heapModel, boolean devirtualize) {
         this.heapModel = heapModel;
+        this.devirtualize = devirtualize;
     }
 
     /**
@@ -73,11 +85,13 @@ class Solver {
      * Initializes pointer analysis.
      */
     private void initialize() {
-        workList = new WorkList();
-        pointerFlowGraph = new PointerFlowGraph();
+        objIndexer = new ObjIndexer();
+        pointerFlowGraph = new PointerFlowGraph(objIndexer);
+        workList = new WorkList(pointerFlowGraph);
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
+        devirtualizer = devirtualize ? new Devirtualizer(hierarchy) : null;
         // initialize main method
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
@@ -92,12 +106,16 @@ class Solver {
             return;
         }
         callGraph.addReachableMethod(method);
+        if (devirtualizer != null) {
+            devirtualizer.process(method);
+        }
+        pointerFlowGraph.collapseVars(OfflineVarSubstitution.compute(method.getIR()));
 
         for (Stmt stmt : method.getIR().getStmts()) {
             // process new statement.
             if (stmt instanceof New newStmt) {
                 workList.addEntry(pointerFlowGraph.getVarPtr(newStmt.getLValue()),
-                        new PointsToSet(heapModel.getObj(newStmt)));
+                        new PointsToSet(objIndexer, heapModel.getObj(newStmt)));
             } else {
                 // add edge for assign, static load, static store and static call statements.
                 processAssignStaticLoadStoreCallStmt(stmt);
@@ -158,15 +176,21 @@ class Solver {
         addCallPFGAndCGEdge(CallKind.STATIC, callSite, callee);
     }
 
-    /** Add the PFG Edge And call edge according to given call site and callee. */
-    private void addCallPFGAndCGEdge(CallKind kind, Invoke callSite, JMethod callee) {
+    /**
+     * Add the PFG Edge And call edge according to given call site and callee.
+     *
+     * @return true if the call edge is new, false otherwise.
+     */
+    private boolean addCallPFGAndCGEdge(CallKind kind, Invoke callSite, JMethod callee) {
         if (callGraph.addEdge(new Edge(kind, callSite, callee))) {
             addReachable(callee);
             // add edges from args to params
             addEdgesFromArgsToParams(callSite, callee);
             // add edge from return vars to receiver var.
             addEdgesFromRetToRecVar(callSite, callee);
+            return true;
         }
+        return false;
     }
 
     /** add the edges from the args to params. */
@@ -208,7 +232,11 @@ class Solver {
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
+        if (source == target) { // copy between collapsed variables
+            return;
+        }
         if (pointerFlowGraph.addEdge(source, target)) {
+            onNewPFGEdge(source, target);
             PointsToSet pointsToSet = source.getPointsToSet();
             if (pointsToSet != null) {
                 workList.addEntry(target, pointsToSet);
@@ -216,10 +244,16 @@ class Solver {
         }
     }
 
+    /**
+     * Called when a new edge "source -> target" is added to the PFG.
+     */
+    void onNewPFGEdge(Pointer source, Pointer target) {
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
-    private void analyze() {
+    void analyze() {
         while (!workList.isEmpty()) {
             WorkList.Entry entry = workList.pollEntry();
             Pointer pointer = entry.pointer();
@@ -236,12 +270,14 @@ class Solver {
      * Update the edges corresponding to the instance load & store statements,
      * i.e. x.f = y, y = x.f, var.arr = y, y = var.arr
      */
-    private void processFieldAndArrayAccessAndCall(VarPtr varPtr, PointsToSet ptsToPropagate) {
-        Var var = varPtr.getVar();
-        // for each obj → pts(var)
-        for (Obj obj : ptsToPropagate) {
-            updateEdgesOfFieldAndArrayAccess(obj, var);
-            processCall(var, obj);
+    void processFieldAndArrayAccessAndCall(VarPtr varPtr, PointsToSet ptsToPropagate) {
+        // the variables collapsed into varPtr share its points-to set
+        for (Var var : varPtr.getVars()) {
+            // for each obj → pts(var)
+            for (Obj obj : ptsToPropagate) {
+                updateEdgesOfFieldAndArrayAccess(obj, var);
+                processCall(var, obj);
+            }
         }
     }
 
@@ -308,14 +344,8 @@ class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        PointsToSet ptsInPFG = pointer.getPointsToSet();
-        PointsToSet ptsToPropagate = new PointsToSet();
-
-        for (Obj obj : pointsToSet) {
-            if (ptsInPFG.addObject(obj)) {
-                ptsToPropagate.addObject(obj);
-            }
-        }
+        // delta = pointsToSet - pt(pointer), pt(pointer) |= delta
+        PointsToSet ptsToPropagate = pointer.getPointsToSet().addAllDiff(pointsToSet);
 
         if (!ptsToPropagate.isEmpty()) {
             for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
@@ -335,9 +365,21 @@ class Solver {
     private void processCall(Var var, Obj recv) {
         // invoke: l: r = x.k (a1,...,an)
         for (Invoke callSite : var.getInvokes()) {
+            JMethod uniqueTarget = devirtualizer != null ?
+                    devirtualizer.getUniqueTarget(callSite) : null;
+            if (uniqueTarget != null) {
+                // monomorphic call site is bound once on its first receiver
+                // object, then the receiver objects flow to this variable
+                // of the target along PFG edge x -> this, without dispatch
+                if (addCallPFGAndCGEdge(CallKind.VIRTUAL, callSite, uniqueTarget)) {
+                    addPFGEdge(pointerFlowGraph.getVarPtr(var),
+                            pointerFlowGraph.getVarPtr(uniqueTarget.getIR().getThis()));
+                }
+                continue;
+            }
             JMethod callee = resolveCallee(recv, callSite);
             workList.addEntry(pointerFlowGraph.getVarPtr(callee.getIR().getThis()),
-                    new PointsToSet(recv));
+                    new PointsToSet(objIndexer, recv));
             addCallPFGAndCGEdge(CallKind.VIRTUAL, callSite, callee);
         }
     }
@@ -355,7 +397,20 @@ class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    WorkList getWorkList() {
+        return workList;
+    }
+
+    PointerFlowGraph getPointerFlowGraph() {
+        return pointerFlowGraph;
+    }
+
+    ObjIndexer getObjIndexer() {
+        return objIndexer;
+    }
+
     CIPTAResult getResult() {
+        pointerFlowGraph.expandCollapsedVars();
         return new CIPTAResult(pointerFlowGraph, callGraph);
     }
 }
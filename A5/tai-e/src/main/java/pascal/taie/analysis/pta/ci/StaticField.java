@@ -31,7 +31,8 @@ class StaticField extends Pointer {
 
     private final JField field;
 
-    StaticField(JField field) {
+    StaticField(JField field, PointsToSet pointsToSet) {
+        super(pointsToSet);
         this.field = field;
     }
 
@@ -0,0 +1,54 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.config.AnalysisConfig;
+
+/**
+ * Context-insensitive unification-based (Steensgaard-style) pointer analysis.
+ * It runs in almost linear time, and produces coarser results than
+ * {@link CIPTA}, which can be used in place of the results of {@link CIPTA}.
+ */
+public class Steensgaard extends ProgramAnalysis {
+
+    public static final String ID = "steensgaard";
+
+    public Steensgaard(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public PointerAnalysisResult analyze() {
+        HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
+        UnificationSolver solver = new UnificationSolver(heapModel,
+                getOptions().getBoolean("field-based"));
+        solver.solve();
+        CIPTAResult result = solver.getResult();
+        new ResultProcessor(getOptions()).process(result);
+        return result;
+    }
+}
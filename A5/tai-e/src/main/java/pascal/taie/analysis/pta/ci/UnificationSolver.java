@@ -0,0 +1,475 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Solver of unification-based pointer analysis.
+ * <p>
+ * Each pointer (variable, static field, instance field or array index)
+ * is a node of a union-find structure, and each equivalence class of
+ * nodes holds the objects pointed to by the nodes in the class, and the
+ * classes of the fields and array indexes of these objects. An assignment
+ * "x = y" unifies the classes of x and y instead of adding an edge, thus
+ * the analysis runs in almost linear time.
+ * <p>
+ * If field-based is true, all instance fields of the same {@link JField}
+ * (and all array indexes) are represented by one node,
+ * otherwise the fields are distinguished by the classes of their bases.
+ * <p>
+ * The call graph is built on the fly: an instance call site is
+ * dispatched on the objects in the class of its receiver variable.
+ * Each class records its objects and call sites which have not been
+ * dispatched against each other, so that only the new pairs of call site
+ * and object are dispatched when a class changes, instead of all pairs.
+ */
+class UnificationSolver {
+
+    private static final Logger logger = LogManager.getLogger(UnificationSolver.class);
+
+    private final HeapModel heapModel;
+
+    private final boolean fieldBased;
+
+    private final Map<Var, Node> varNodes = Maps.newMap();
+
+    private final Map<JField, Node> staticFieldNodes = Maps.newMap();
+
+    /**
+     * Nodes of instance fields, only used when field-based is true.
+     */
+    private final Map<JField, Node> fieldNodes = Maps.newMap();
+
+    /**
+     * Node of array indexes, only used when field-based is true.
+     */
+    private Node arrayNode;
+
+    /**
+     * Classes which have pending objects or call sites to be dispatched.
+     */
+    private final Deque<Node> dirtyNodes = new ArrayDeque<>();
+
+    /**
+     * Map from call site to types of receiver objects dispatched on it.
+     */
+    private final MultiMap<Invoke, Type> dispatched = Maps.newMultiMap();
+
+    private DefaultCallGraph callGraph;
+
+    UnificationSolver(HeapModel heapModel, boolean fieldBased) {
+        this.heapModel = heapModel;
+        this.fieldBased = fieldBased;
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        callGraph = new DefaultCallGraph();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        addReachable(main);
+        while (!dirtyNodes.isEmpty()) {
+            Node node = find(dirtyNodes.poll());
+            if (node.newObjs.isEmpty() && node.newCallSites.isEmpty()) {
+                continue;
+            }
+            List<Obj> newObjs = node.newObjs;
+            Set<Invoke> newCallSites = node.newCallSites;
+            node.newObjs = new ArrayList<>(0);
+            node.newCallSites = Sets.newHybridSet();
+            // copy the collections as dispatching may unify this class with
+            // others, the objects and call sites added meanwhile are pending
+            // in the (new) representative
+            List<Obj> objs = newCallSites.isEmpty() ? List.of() : List.copyOf(node.objs);
+            for (Invoke callSite : List.copyOf(node.callSites)) {
+                // new call sites are dispatched on all objects,
+                // and old call sites only on the new objects
+                for (Obj recv : newCallSites.contains(callSite) ? objs : newObjs) {
+                    dispatch(callSite, recv);
+                }
+            }
+        }
+        logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
+    }
+
+    private void dispatch(Invoke callSite, Obj recv) {
+        if (dispatched.put(callSite, recv.getType())) {
+            JMethod callee = CallGraphs.resolveCallee(recv.getType(), callSite);
+            if (callee != null) {
+                addCallEdge(callSite, callee);
+            }
+        }
+    }
+
+    /**
+     * Processes new reachable method.
+     */
+    private void addReachable(JMethod method) {
+        if (callGraph.contains(method)) {
+            return;
+        }
+        callGraph.addReachableMethod(method);
+        for (Stmt stmt : method.getIR().getStmts()) {
+            if (stmt instanceof New newStmt) {
+                addObject(getVarNode(newStmt.getLValue()),
+                        heapModel.getObj(newStmt));
+            } else if (stmt instanceof Copy copy) {
+                union(getVarNode(copy.getLValue()), getVarNode(copy.getRValue()));
+            } else if (stmt instanceof StoreField storeField) {
+                union(getFieldNode(storeField), getVarNode(storeField.getRValue()));
+            } else if (stmt instanceof LoadField loadField) {
+                union(getVarNode(loadField.getLValue()), getFieldNode(loadField));
+            } else if (stmt instanceof StoreArray storeArray) {
+                union(getArrayNode(storeArray.getArrayAccess().getBase()),
+                        getVarNode(storeArray.getRValue()));
+            } else if (stmt instanceof LoadArray loadArray) {
+                union(getVarNode(loadArray.getLValue()),
+                        getArrayNode(loadArray.getArrayAccess().getBase()));
+            } else if (stmt instanceof Invoke invoke) {
+                if (invoke.isStatic()) {
+                    JMethod callee = CallGraphs.resolveCallee(null, invoke);
+                    if (callee != null) {
+                        addCallEdge(invoke, callee);
+                    }
+                } else if (invoke.getInvokeExp() instanceof InvokeInstanceExp invokeExp) {
+                    addCallSite(getVarNode(invokeExp.getBase()), invoke);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds call edge, and unifies the arguments with the parameters,
+     * the receiver variable with this variable, and the return variables
+     * with the result variable.
+     */
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (!callGraph.addEdge(new Edge<>(CallGraphs.getCallKind(callSite),
+                callSite, callee))) {
+            return;
+        }
+        addReachable(callee);
+        List<Var> args = callSite.getInvokeExp().getArgs();
+        List<Var> params = callee.getIR().getParams();
+        if (args.size() != params.size()) {
+            throw new AnalysisException("the numbers of args and params do not match!");
+        }
+        for (int i = 0; i < args.size(); i++) {
+            union(getVarNode(params.get(i)), getVarNode(args.get(i)));
+        }
+        if (callSite.getInvokeExp() instanceof InvokeInstanceExp invokeExp) {
+            union(getVarNode(callee.getIR().getThis()),
+                    getVarNode(invokeExp.getBase()));
+        }
+        Var result = callSite.getLValue();
+        if (result != null) {
+            Node resultNode = getVarNode(result);
+            for (Var ret : callee.getIR().getReturnVars()) {
+                union(resultNode, getVarNode(ret));
+            }
+        }
+    }
+
+    private Node getVarNode(Var var) {
+        return varNodes.computeIfAbsent(var, v -> new Node());
+    }
+
+    /**
+     * @return the node of the field accessed by given statement.
+     * For instance field, the node depends on the class of the base
+     * variable if field-based is false.
+     */
+    private Node getFieldNode(FieldStmt<?, ?> stmt) {
+        JField field = stmt.getFieldRef().resolve();
+        if (stmt.isStatic()) {
+            return staticFieldNodes.computeIfAbsent(field, f -> new Node());
+        }
+        Var base = ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+        Node baseNode = find(getVarNode(base));
+        if (baseNode.fields == null) {
+            baseNode.fields = Maps.newMap();
+        }
+        return baseNode.fields.computeIfAbsent(field, f -> fieldBased
+                ? fieldNodes.computeIfAbsent(f, unused -> new Node())
+                : new Node());
+    }
+
+    /**
+     * @return the node of the array indexes of the objects pointed to
+     * by the base variable.
+     */
+    private Node getArrayNode(Var base) {
+        Node baseNode = find(getVarNode(base));
+        if (baseNode.array == null) {
+            if (fieldBased) {
+                if (arrayNode == null) {
+                    arrayNode = new Node();
+                }
+                baseNode.array = arrayNode;
+            } else {
+                baseNode.array = new Node();
+            }
+        }
+        return baseNode.array;
+    }
+
+    private void addObject(Node node, Obj obj) {
+        node = find(node);
+        // if the class has no call sites, the object needs no dispatch
+        // until call sites are added, which are dispatched on all objects
+        if (node.objs.add(obj) && !node.callSites.isEmpty()) {
+            node.newObjs.add(obj);
+            dirtyNodes.add(node);
+        }
+    }
+
+    private void addCallSite(Node node, Invoke callSite) {
+        node = find(node);
+        node.callSites.add(callSite);
+        if (!node.objs.isEmpty()) {
+            node.newCallSites.add(callSite);
+            dirtyNodes.add(node);
+        }
+    }
+
+    /**
+     * @return the representative of the class of given node.
+     */
+    private static Node find(Node node) {
+        while (node.parent != node) {
+            node.parent = node.parent.parent; // path halving
+            node = node.parent;
+        }
+        return node;
+    }
+
+    /**
+     * Unifies the classes of given nodes, and recursively
+     * the classes of their fields and array indexes.
+     */
+    private void union(Node x, Node y) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(x);
+        pending.push(y);
+        while (!pending.isEmpty()) {
+            Node a = find(pending.pop());
+            Node b = find(pending.pop());
+            if (a == b) {
+                continue;
+            }
+            if (a.rank < b.rank) {
+                Node t = a;
+                a = b;
+                b = t;
+            }
+            // merge b into a
+            b.parent = a;
+            if (a.rank == b.rank) {
+                ++a.rank;
+            }
+            // keep the larger objects and call sites (with their dispatched
+            // pairs) in a, and the ones of b are dispatched as new ones
+            if (a.objs.size() + a.callSites.size() <
+                    b.objs.size() + b.callSites.size()) {
+                swapDispatchData(a, b);
+            }
+            for (Obj obj : b.objs) {
+                if (a.objs.add(obj)) {
+                    a.newObjs.add(obj);
+                }
+            }
+            a.callSites.addAll(b.callSites);
+            a.newCallSites.addAll(b.callSites);
+            if (b.fields != null) {
+                if (a.fields == null) {
+                    a.fields = b.fields;
+                } else {
+                    for (Map.Entry<JField, Node> entry : b.fields.entrySet()) {
+                        Node aField = a.fields.putIfAbsent(entry.getKey(), entry.getValue());
+                        if (aField != null) {
+                            pending.push(aField);
+                            pending.push(entry.getValue());
+                        }
+                    }
+                }
+            }
+            if (b.array != null) {
+                if (a.array == null) {
+                    a.array = b.array;
+                } else {
+                    pending.push(a.array);
+                    pending.push(b.array);
+                }
+            }
+            // release the data of non-representative node
+            b.objs = null;
+            b.callSites = null;
+            b.newObjs = null;
+            b.newCallSites = null;
+            b.fields = null;
+            b.array = null;
+            if (a.objs.isEmpty() || a.callSites.isEmpty()) {
+                // no pair of call site and object to be dispatched
+                a.newObjs.clear();
+                a.newCallSites.clear();
+            } else if (!a.newObjs.isEmpty() || !a.newCallSites.isEmpty()) {
+                dirtyNodes.add(a);
+            }
+        }
+    }
+
+    /**
+     * Swaps the objects and call sites (and the pending ones) of given nodes.
+     */
+    private static void swapDispatchData(Node a, Node b) {
+        Set<Obj> objs = a.objs;
+        a.objs = b.objs;
+        b.objs = objs;
+        List<Invoke> callSites = a.callSites;
+        a.callSites = b.callSites;
+        b.callSites = callSites;
+        List<Obj> newObjs = a.newObjs;
+        a.newObjs = b.newObjs;
+        b.newObjs = newObjs;
+        Set<Invoke> newCallSites = a.newCallSites;
+        a.newCallSites = b.newCallSites;
+        b.newCallSites = newCallSites;
+    }
+
+    /**
+     * Converts the classes to a PFG whose pointers hold the objects
+     * of their classes, so that the results are viewed in the same way
+     * as {@link CIPTA}.
+     */
+    CIPTAResult getResult() {
+        ObjIndexer indexer = new ObjIndexer();
+        PointerFlowGraph pointerFlowGraph = new PointerFlowGraph(indexer);
+        Map<Node, PointsToSet> classPointsToSets = Maps.newMap();
+        varNodes.forEach((var, node) -> pointerFlowGraph.getVarPtr(var)
+                .getPointsToSet()
+                .addAllDiff(getPointsToSet(node, indexer, classPointsToSets)));
+        staticFieldNodes.forEach((field, node) -> pointerFlowGraph.getStaticField(field)
+                .getPointsToSet()
+                .addAllDiff(getPointsToSet(node, indexer, classPointsToSets)));
+        // the fields and array indexes of the objects in each class
+        Set<Node> roots = Sets.newSet();
+        varNodes.values().forEach(node -> roots.add(find(node)));
+        for (Node root : roots) {
+            for (Obj obj : root.objs) {
+                if (root.fields != null) {
+                    root.fields.forEach((field, node) ->
+                            pointerFlowGraph.getInstanceField(obj, field)
+                                    .getPointsToSet()
+                                    .addAllDiff(getPointsToSet(node, indexer, classPointsToSets)));
+                }
+                if (root.array != null) {
+                    pointerFlowGraph.getArrayIndex(obj)
+                            .getPointsToSet()
+                            .addAllDiff(getPointsToSet(root.array, indexer, classPointsToSets));
+                }
+            }
+        }
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+
+    private static PointsToSet getPointsToSet(
+            Node node, ObjIndexer indexer, Map<Node, PointsToSet> classPointsToSets) {
+        return classPointsToSets.computeIfAbsent(find(node), root -> {
+            PointsToSet pts = new PointsToSet(indexer);
+            root.objs.forEach(pts::addObject);
+            return pts;
+        });
+    }
+
+    /**
+     * Node of union-find structure. Only the representative of a class
+     * holds the data of the class.
+     */
+    private static class Node {
+
+        private Node parent = this;
+
+        private int rank = 0;
+
+        private Set<Obj> objs = Sets.newHybridSet();
+
+        private List<Invoke> callSites = new ArrayList<>(0);
+
+        /**
+         * Objects which have not been dispatched on the call sites
+         * in {@link #callSites} except {@link #newCallSites}.
+         */
+        private List<Obj> newObjs = new ArrayList<>(0);
+
+        /**
+         * Call sites which have not been dispatched on the objects.
+         */
+        private Set<Invoke> newCallSites = Sets.newHybridSet();
+
+        /**
+         * Map from field to the class of the field of the objects.
+         */
+        private Map<JField, Node> fields;
+
+        /**
+         * Class of the array indexes of the objects.
+         */
+        private Node array;
+    }
+}
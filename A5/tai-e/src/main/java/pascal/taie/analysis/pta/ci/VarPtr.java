@@ -24,6 +24,9 @@ package pascal.taie.analysis.pta.ci;
 
 import pascal.taie.ir.exp.Var;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents local variable pointer in PFG.
  */
@@ -31,8 +34,17 @@ class VarPtr extends Pointer {
 
     private final Var var;
 
-    VarPtr(Var var) {
+    /**
+     * The variable of this pointer, and the variables collapsed into it.
+     *
+     * @see OfflineVarSubstitution
+     */
+    private final List<Var> vars = new ArrayList<>(1);
+
+    VarPtr(Var var, PointsToSet pointsToSet) {
+        super(pointsToSet);
         this.var = var;
+        vars.add(var);
     }
 
     /**
@@ -42,6 +54,20 @@ class VarPtr extends Pointer {
         return var;
     }
 
+    /**
+     * Adds a variable which is collapsed into this pointer.
+     */
+    void addCollapsedVar(Var var) {
+        vars.add(var);
+    }
+
+    /**
+     * @return the variable of this pointer and the variables collapsed into it.
+     */
+    List<Var> getVars() {
+        return vars;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -22,21 +22,65 @@
 
 package pascal.taie.analysis.pta.ci;
 
-import java.util.ArrayDeque;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The work list keeps at most one pending entry for each pointer.
+ * When a pointer which is already pending is added again, the new objects
+ * are merged into its pending points-to set, so that the pointer is
+ * propagated once for all of them. The pending pointers are polled in
+ * the ascending order of their numbers of predecessors in PFG (at the time
+ * they become pending), which favors the sources of PFG, so that their
+ * objects are likely to be merged with others before reaching the sinks.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final Map<Pointer, Pending> pending = Maps.newMap();
+
+    private final Queue<Pending> queue = new PriorityQueue<>(
+            Comparator.comparingInt((Pending p) -> p.priority)
+                    .thenComparingLong(p -> p.order));
+
+    /**
+     * Counter for the order of pending entries, which breaks ties
+     * of priorities in first-in-first-out manner.
+     */
+    private long counter = 0;
+
+    WorkList(PointerFlowGraph pointerFlowGraph) {
+        this.pointerFlowGraph = pointerFlowGraph;
+    }
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        if (pointsToSet.isEmpty()) {
+            return;
+        }
+        Pending entry = pending.get(pointer);
+        if (entry == null) {
+            entry = new Pending(pointer, pointsToSet,
+                    pointerFlowGraph.getInDegreeOf(pointer), counter++);
+            pending.put(pointer, entry);
+            queue.add(entry);
+        } else {
+            if (!entry.owned) {
+                // the given sets may be shared, copy before merging
+                entry.pointsToSet = entry.pointsToSet.copy();
+                entry.owned = true;
+            }
+            entry.pointsToSet.addAllDiff(pointsToSet);
+        }
     }
 
     /**
@@ -44,14 +88,19 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Pending entry = queue.poll();
+        if (entry == null) {
+            return null;
+        }
+        pending.remove(entry.pointer);
+        return new Entry(entry.pointer, entry.pointsToSet);
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return queue.isEmpty();
     }
 
     /**
@@ -60,4 +109,33 @@ class WorkList {
      */
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
+
+    /**
+     * Pending entry of a pointer, whose points-to set is merged
+     * with the objects added later.
+     */
+    private static class Pending {
+
+        private final Pointer pointer;
+
+        private PointsToSet pointsToSet;
+
+        /**
+         * Whether pointsToSet is created by this work list, i.e.,
+         * it is not shared and can be modified.
+         */
+        private boolean owned = false;
+
+        private final int priority;
+
+        private final long order;
+
+        private Pending(Pointer pointer, PointsToSet pointsToSet,
+                        int priority, long order) {
+            this.pointer = pointer;
+            this.pointsToSet = pointsToSet;
+            this.priority = priority;
+            this.order = order;
+        }
+    }
 }
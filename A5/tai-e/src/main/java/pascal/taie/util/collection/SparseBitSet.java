@@ -0,0 +1,258 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Sparse bit set of non-negative integers.
+ * <p>
+ * The set is stored as the non-zero 64-bit words of the corresponding
+ * dense bit set, sorted by the indexes of the words. Hence, the memory
+ * is proportional to the number of non-zero words instead of
+ * the largest element, and the set operations, e.g.,
+ * {@link #addAllDiff(SparseBitSet)}, work on whole words.
+ */
+public class SparseBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int[] EMPTY_KEYS = new int[0];
+
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    /**
+     * Indexes of the non-zero words, in ascending order.
+     */
+    private int[] keys = EMPTY_KEYS;
+
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Number of words in use.
+     */
+    private int length;
+
+    /**
+     * Number of elements in this set.
+     */
+    private int size;
+
+    public SparseBitSet() {
+    }
+
+    /**
+     * @return a new set containing the same elements as this set.
+     */
+    public SparseBitSet copy() {
+        SparseBitSet copy = new SparseBitSet();
+        copy.keys = Arrays.copyOf(keys, length);
+        copy.words = Arrays.copyOf(words, length);
+        copy.length = length;
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean add(int bit) {
+        int key = bit >>> ADDRESS_BITS_PER_WORD;
+        long mask = 1L << bit;
+        int pos = Arrays.binarySearch(keys, 0, length, key);
+        if (pos >= 0) {
+            if ((words[pos] & mask) != 0) {
+                return false;
+            }
+            words[pos] |= mask;
+        } else {
+            insertWord(-pos - 1, key, mask);
+        }
+        ++size;
+        return true;
+    }
+
+    public boolean contains(int bit) {
+        int pos = Arrays.binarySearch(keys, 0, length,
+                bit >>> ADDRESS_BITS_PER_WORD);
+        return pos >= 0 && (words[pos] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Adds all elements of other set to this set.
+     *
+     * @return the elements which are in other set but were not in this set,
+     * i.e., the elements added by this call.
+     */
+    public SparseBitSet addAllDiff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet();
+        if (other.length == 0) {
+            return diff;
+        }
+        diff.keys = new int[other.length];
+        diff.words = new long[other.length];
+        int missingKeys = 0;
+        for (int i = 0, j = 0; j < other.length; ) {
+            if (i < length && keys[i] < other.keys[j]) {
+                ++i;
+                continue;
+            }
+            long newBits;
+            if (i < length && keys[i] == other.keys[j]) {
+                newBits = other.words[j] & ~words[i];
+                ++i;
+            } else {
+                newBits = other.words[j];
+                ++missingKeys;
+            }
+            if (newBits != 0) {
+                diff.keys[diff.length] = other.keys[j];
+                diff.words[diff.length++] = newBits;
+                diff.size += Long.bitCount(newBits);
+            }
+            ++j;
+        }
+        if (diff.length != 0) {
+            if (missingKeys == 0) {
+                unionInPlace(diff);
+            } else {
+                merge(diff, missingKeys);
+            }
+            size += diff.size;
+        }
+        return diff;
+    }
+
+    /**
+     * Adds the words of diff, all of whose keys are in this set.
+     */
+    private void unionInPlace(SparseBitSet diff) {
+        for (int i = 0, j = 0; j < diff.length; ++i) {
+            if (keys[i] == diff.keys[j]) {
+                words[i] |= diff.words[j++];
+            }
+        }
+    }
+
+    /**
+     * Merges the words of diff into this set.
+     */
+    private void merge(SparseBitSet diff, int missingKeys) {
+        int newLength = length + missingKeys;
+        int[] newKeys = new int[newCapacity(newLength)];
+        long[] newWords = new long[newKeys.length];
+        int i = 0, j = 0, k = 0;
+        while (i < length || j < diff.length) {
+            if (j == diff.length || (i < length && keys[i] < diff.keys[j])) {
+                newKeys[k] = keys[i];
+                newWords[k++] = words[i++];
+            } else if (i == length || diff.keys[j] < keys[i]) {
+                newKeys[k] = diff.keys[j];
+                newWords[k++] = diff.words[j++];
+            } else {
+                newKeys[k] = keys[i];
+                newWords[k++] = words[i++] | diff.words[j++];
+            }
+        }
+        keys = newKeys;
+        words = newWords;
+        length = k;
+    }
+
+    private void insertWord(int pos, int key, long word) {
+        if (length == keys.length) {
+            keys = Arrays.copyOf(keys, newCapacity(length + 1));
+            words = Arrays.copyOf(words, keys.length);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, length - pos);
+        System.arraycopy(words, pos, words, pos + 1, length - pos);
+        keys[pos] = key;
+        words[pos] = word;
+        ++length;
+    }
+
+    private static int newCapacity(int minCapacity) {
+        return Math.max(4, minCapacity + (minCapacity >> 1));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int k = 0; k < length; ++k) {
+            int base = keys[k] << ADDRESS_BITS_PER_WORD;
+            for (long word = words[k]; word != 0; word &= word - 1) {
+                action.accept(base + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int k = 0;
+
+            private long word = length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && k + 1 < length) {
+                    word = words[++k];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = (keys[k] << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return bit;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach(bit -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(bit);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -22,9 +22,12 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.util.Set;
+
 public class CIPTATest {
 
     static final String DIR = "cipta";
@@ -78,4 +81,43 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testManyLocals() {
+        Set<String> facts = Tests.analyzeCIPTA(DIR, "ManyLocals");
+        String pts = getPointsTo(facts, "p");
+        Assert.assertNotEquals("[]", pts);
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(pts, getPointsTo(facts, "v" + i));
+        }
+    }
+
+    /**
+     * @return the points-to set of given variable of ManyLocals.chain()
+     * in the facts, see {@link Tests#getPTAFacts(String)}.
+     */
+    private static String getPointsTo(Set<String> facts, String varName) {
+        String prefix = "<ManyLocals: ManyLocals chain(ManyLocals)>/"
+                + varName + " -> ";
+        return facts.stream()
+                .filter(fact -> fact.startsWith(prefix))
+                .map(fact -> fact.substring(prefix.length()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void testParallelExample() {
+        Tests.testCIPTA(DIR, "Example", "threads:4", "parallel-threshold:0");
+    }
+
+    @Test
+    public void testParallelCall() {
+        Tests.testCIPTA(DIR, "Call", "threads:4", "parallel-threshold:0");
+    }
+
+    @Test
+    public void testParallelInstanceField() {
+        Tests.testCIPTA(DIR, "InstanceField", "threads:4", "parallel-threshold:0");
+    }
 }
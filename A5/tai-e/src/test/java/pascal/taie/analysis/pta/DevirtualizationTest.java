@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.Devirtualizer;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks the call sites which are devirtualized, and that the
+ * devirtualization does not change the results of pointer analysis.
+ */
+public class DevirtualizationTest {
+
+    private static void test(String main) {
+        Assert.assertEquals(
+                Tests.analyzeCIPTA(CIPTATest.DIR, main, "devirtualize:false"),
+                Tests.analyzeCIPTA(CIPTATest.DIR, main, "devirtualize:true"));
+    }
+
+    @Test
+    public void testCall() {
+        test("Call");
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testStoreLoad() {
+        test("StoreLoad");
+    }
+
+    @Test
+    public void testDevirtualize() {
+        test("Devirtualize");
+        Devirtualizer devirtualizer = new Devirtualizer(
+                World.get().getClassHierarchy());
+        JMethod main = World.get().getMainMethod();
+        devirtualizer.process(main);
+        Map<String, String> targets = new TreeMap<>();
+        for (Stmt stmt : main.getIR().getStmts()) {
+            if (stmt instanceof Invoke invoke) {
+                MethodRef ref = invoke.getMethodRef();
+                targets.put(ref.getDeclaringClass() + "." + ref.getName(),
+                        String.valueOf(devirtualizer.getUniqueTarget(invoke)));
+            }
+        }
+        // the method is not overridden
+        Assert.assertEquals("<Single: java.lang.Object get()>",
+                targets.get("Single.get"));
+        // the method is overridden by Dog and Cat
+        Assert.assertEquals("null", targets.get("Animal.speak"));
+        // the interface has a single implementor
+        Assert.assertEquals("<Square: java.lang.Object area()>",
+                targets.get("Shape.area"));
+        // constructor calls are bound to their declaring classes
+        Assert.assertEquals("<Dog: void <init>()>", targets.get("Dog.<init>"));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+import java.util.Set;
+
+/**
+ * Compares the parallel wave propagation with the serial solver of cipta
+ * under different numbers of threads. The results must be the same.
+ * The timing of the parallel solver is measured separately by
+ * {@link pascal.taie.analysis.pta.ci.ParallelSolverBenchmark}.
+ */
+public class ParallelSolverTest {
+
+    private static final int[] THREADS = {2, 4, 8};
+
+    private static void test(String main) {
+        Set<String> expected = Tests.analyzeCIPTA(CIPTATest.DIR, main);
+        for (int threads : THREADS) {
+            Set<String> actual = Tests.analyzeCIPTA(CIPTATest.DIR, main,
+                    "threads:" + threads, "parallel-threshold:0");
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testCycles() {
+        test("Cycles");
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testStoreLoad() {
+        test("StoreLoad");
+    }
+
+    @Test
+    public void testMergeParam() {
+        test("MergeParam");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assume;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.util.Timer;
+
+/**
+ * Measures the scaling of {@link ParallelSolver} with the number of threads.
+ * This benchmark is opt-in: it runs only when system property
+ * {@value #PROPERTY} names the test case under pta/cipta to analyze, e.g.,
+ * <pre>
+ * gradle test --tests '*ParallelSolverBenchmark' -Dcipta.benchmark=Example
+ * </pre>
+ * The program is analyzed together with the reachable library code, so that
+ * the solver has enough work, and only the solving is timed.
+ */
+public class ParallelSolverBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolverBenchmark.class);
+
+    private static final String PROPERTY = "cipta.benchmark";
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    /**
+     * Number of measured runs of each configuration.
+     */
+    private static final int RUNS = 5;
+
+    @Test
+    public void benchmark() {
+        String main = System.getProperty(PROPERTY);
+        Assume.assumeTrue(main != null);
+        // builds the world, and warms up the solver at the same time
+        Tests.analyzeCIPTA("cipta", main, "only-app:false");
+        for (int threads : THREADS) {
+            Timer timer = new Timer("cipta (" + main + ") with "
+                    + threads + " thread(s), " + RUNS + " runs");
+            for (int i = 0; i < RUNS; ++i) {
+                Solver solver = newSolver(threads);
+                timer.start();
+                solver.solve();
+                timer.stop();
+            }
+            logger.info("{}, {} per run", timer,
+                    String.format("%.2fs", timer.inSecond() / RUNS));
+        }
+    }
+
+    private static Solver newSolver(int threads) {
+        AnalysisConfig config = new AnalysisConfig(CIPTA.ID,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true);
+        HeapModel heapModel = new AllocationSiteBasedModel(config.getOptions());
+        return threads == 1 ? new Solver(heapModel, true)
+                : new ParallelSolver(heapModel, true, threads, 64);
+    }
+}
@@ -0,0 +1,34 @@
+public class Cycles {
+
+    public static void main(String[] args) {
+        Node a = new Node();
+        Node b = new Node();
+        a.next = b;
+        Node c = a.next;
+        // the cycle c -> b.next -> ... is closed by the field edges
+        // which are discovered in later rounds
+        c.next = c;
+        Node d = b.next;
+        Node e = d.next;
+        e.next = new Node();
+        Node x = new Node();
+        Node y = x;
+        Node z = y;
+        x = z;
+        // the cycle x -> y -> z -> x is extended by the call edges
+        Node r = x.id(z);
+        z = r.id(a);
+        Node s = r.next;
+    }
+}
+
+class Node {
+
+    Node next;
+
+    Node id(Node n) {
+        Node m = n;
+        m.next = this;
+        return m.next;
+    }
+}
@@ -0,0 +1,54 @@
+public class Devirtualize {
+
+    public static void main(String[] args) {
+        Single s = new Single();
+        Object o1 = s.get();
+        Animal a = new Dog();
+        if (args.length > 0) {
+            a = new Cat();
+        }
+        Object o2 = a.speak();
+        Shape sh = new Square();
+        Object o3 = sh.area();
+    }
+}
+
+class Single {
+
+    Object get() {
+        return new Object();
+    }
+}
+
+class Animal {
+
+    Object speak() {
+        return null;
+    }
+}
+
+class Dog extends Animal {
+
+    Object speak() {
+        return new Object();
+    }
+}
+
+class Cat extends Animal {
+
+    Object speak() {
+        return new Object();
+    }
+}
+
+interface Shape {
+
+    Object area();
+}
+
+class Square implements Shape {
+
+    public Object area() {
+        return new Object();
+    }
+}
@@ -0,0 +1,112 @@
+public class ManyLocals {
+
+    public static void main(String[] args) {
+        chain(new ManyLocals());
+    }
+
+    // the copies are collapsed into p, and the variables are numbered
+    // beyond the initial capacity of the Var nodes of the PFG
+    static ManyLocals chain(ManyLocals p) {
+        ManyLocals v0 = p;
+        ManyLocals v1 = v0;
+        ManyLocals v2 = v1;
+        ManyLocals v3 = v2;
+        ManyLocals v4 = v3;
+        ManyLocals v5 = v4;
+        ManyLocals v6 = v5;
+        ManyLocals v7 = v6;
+        ManyLocals v8 = v7;
+        ManyLocals v9 = v8;
+        ManyLocals v10 = v9;
+        ManyLocals v11 = v10;
+        ManyLocals v12 = v11;
+        ManyLocals v13 = v12;
+        ManyLocals v14 = v13;
+        ManyLocals v15 = v14;
+        ManyLocals v16 = v15;
+        ManyLocals v17 = v16;
+        ManyLocals v18 = v17;
+        ManyLocals v19 = v18;
+        ManyLocals v20 = v19;
+        ManyLocals v21 = v20;
+        ManyLocals v22 = v21;
+        ManyLocals v23 = v22;
+        ManyLocals v24 = v23;
+        ManyLocals v25 = v24;
+        ManyLocals v26 = v25;
+        ManyLocals v27 = v26;
+        ManyLocals v28 = v27;
+        ManyLocals v29 = v28;
+        ManyLocals v30 = v29;
+        ManyLocals v31 = v30;
+        ManyLocals v32 = v31;
+        ManyLocals v33 = v32;
+        ManyLocals v34 = v33;
+        ManyLocals v35 = v34;
+        ManyLocals v36 = v35;
+        ManyLocals v37 = v36;
+        ManyLocals v38 = v37;
+        ManyLocals v39 = v38;
+        ManyLocals v40 = v39;
+        ManyLocals v41 = v40;
+        ManyLocals v42 = v41;
+        ManyLocals v43 = v42;
+        ManyLocals v44 = v43;
+        ManyLocals v45 = v44;
+        ManyLocals v46 = v45;
+        ManyLocals v47 = v46;
+        ManyLocals v48 = v47;
+        ManyLocals v49 = v48;
+        ManyLocals v50 = v49;
+        ManyLocals v51 = v50;
+        ManyLocals v52 = v51;
+        ManyLocals v53 = v52;
+        ManyLocals v54 = v53;
+        ManyLocals v55 = v54;
+        ManyLocals v56 = v55;
+        ManyLocals v57 = v56;
+        ManyLocals v58 = v57;
+        ManyLocals v59 = v58;
+        ManyLocals v60 = v59;
+        ManyLocals v61 = v60;
+        ManyLocals v62 = v61;
+        ManyLocals v63 = v62;
+        ManyLocals v64 = v63;
+        ManyLocals v65 = v64;
+        ManyLocals v66 = v65;
+        ManyLocals v67 = v66;
+        ManyLocals v68 = v67;
+        ManyLocals v69 = v68;
+        ManyLocals v70 = v69;
+        ManyLocals v71 = v70;
+        ManyLocals v72 = v71;
+        ManyLocals v73 = v72;
+        ManyLocals v74 = v73;
+        ManyLocals v75 = v74;
+        ManyLocals v76 = v75;
+        ManyLocals v77 = v76;
+        ManyLocals v78 = v77;
+        ManyLocals v79 = v78;
+        ManyLocals v80 = v79;
+        ManyLocals v81 = v80;
+        ManyLocals v82 = v81;
+        ManyLocals v83 = v82;
+        ManyLocals v84 = v83;
+        ManyLocals v85 = v84;
+        ManyLocals v86 = v85;
+        ManyLocals v87 = v86;
+        ManyLocals v88 = v87;
+        ManyLocals v89 = v88;
+        ManyLocals v90 = v89;
+        ManyLocals v91 = v90;
+        ManyLocals v92 = v91;
+        ManyLocals v93 = v92;
+        ManyLocals v94 = v93;
+        ManyLocals v95 = v94;
+        ManyLocals v96 = v95;
+        ManyLocals v97 = v96;
+        ManyLocals v98 = v97;
+        ManyLocals v99 = v98;
+        return v99;
+    }
+}
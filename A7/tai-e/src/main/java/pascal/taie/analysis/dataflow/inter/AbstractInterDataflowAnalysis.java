@@ -25,14 +25,20 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.nio.file.Path;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -45,9 +51,16 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         extends ProgramAnalysis
         implements InterDataflowAnalysis<Node, Fact> {
 
+    /**
+     * Suffix of the key of the facts reused from option "cache", i.e.,
+     * the reused facts of analysis {@code id} are stored in {@link World}
+     * as result {@code id + REUSED_SUFFIX}.
+     */
+    public static final String REUSED_SUFFIX = "-reused";
+
     protected ICFG<Method, Node> icfg;
 
-    protected InterSolver<Method, Node, Fact> solver;
+    protected AbstractInterSolver<Method, Node, Fact> solver;
 
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
@@ -117,13 +130,62 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected abstract Fact transferReturnEdge(ReturnEdge<Node> edge, Fact returnOut);
     // ----------------------------------------------------------------
 
+    /**
+     * If the concrete analysis supports incremental analysis, then it can
+     * overwrite this method.
+     *
+     * @return the support for incremental analysis, or null if the analysis
+     * does not support it.
+     */
+    protected IncrementalSupport<Method, Node, Fact> getIncrementalSupport() {
+        return null;
+    }
+
+    /**
+     * Solves the ICFG. If option "lazy-icfg" is true, then the ICFG is
+     * constructed lazily during solving, see {@link LazyICFG}.
+     * If option "cache" is given and the analysis supports incremental
+     * analysis, then the results of previous run stored in the cache file
+     * are reused, and the results of this run are stored back. The reused
+     * facts are also stored in {@link World}, see {@link #REUSED_SUFFIX}.
+     */
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
-        initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        if (getOptions().getBooleanOrDefault("lazy-icfg", false)) {
+            icfg = cast(new LazyICFG(World.get().getResult(CallGraphBuilder.ID)));
+            initialize();
+            solver = new LazyInterSolver<>(this, icfg);
+        } else {
+            ICFG<JMethod, Stmt> stmtICFG = World.get().getResult(ICFGBuilder.ID);
+            icfg = cast(stmtICFG);
+            initialize();
+            InterDataflowAnalysis<Stmt, Fact> stmtAnalysis = cast(this);
+            solver = cast(new InterSolver<>(stmtAnalysis, stmtICFG));
+        }
+        DataflowResult<Node, Fact> result;
+        String cache = getOptions().getString("cache");
+        IncrementalSupport<Method, Node, Fact> support = getIncrementalSupport();
+        if (cache != null && support != null) {
+            InterResultCache<Method, Node, Fact> resultCache = new InterResultCache<>(
+                    support, World.get().getResult(CallGraphBuilder.ID), icfg, Path.of(cache));
+            DataflowResult<Node, Fact> reused = resultCache.load();
+            World.get().storeResult(getId() + REUSED_SUFFIX, reused);
+            result = solver.solve(reused);
+            resultCache.store(result);
+        } else {
+            result = solver.solve();
+        }
         finish();
         return result;
     }
+
+    /**
+     * The ICFGs, i.e., {@link LazyICFG} and the one built by {@link ICFGBuilder},
+     * and {@link InterSolver} work on JMethod and Stmt, thus the analyses must
+     * be instantiated with these types.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+
+/**
+ * Base class of the solvers for inter-procedural data-flow analysis,
+ * which holds the analysis and the ICFG to be solved, and provides
+ * the operations used by the analysis during solving.
+ *
+ * @param <Method> type of ICFG methods
+ * @param <Node>   type of ICFG nodes
+ * @param <Fact>   type of data-flow facts
+ */
+abstract class AbstractInterSolver<Method, Node, Fact> {
+
+    protected final InterDataflowAnalysis<Node, Fact> analysis;
+
+    protected final ICFG<Method, Node> icfg;
+
+    AbstractInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        return solve(new DataflowResult<>());
+    }
+
+    /**
+     * Solves the ICFG by reusing the facts of previous run.
+     *
+     * @param reused the facts of the nodes which are reused as is, the caller
+     *               must guarantee that these facts do not depend on the facts
+     *               of the other nodes, i.e., they are the same as the ones
+     *               computed from scratch.
+     */
+    abstract DataflowResult<Node, Fact> solve(DataflowResult<Node, Fact> reused);
+
+    /** Append given node to workList, ignoring the existing nodes. */
+    public abstract void appendNodeToWL(Node node);
+
+    /** @return the out fact of given node. */
+    public abstract Fact getOutFactOf(Node node);
+
+    /** @return the in fact of given node. */
+    public abstract Fact getInFactOf(Node node);
+}
@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.StoreArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buckets of StoreArrays for each array object, keyed by the value of
+ * the index of the StoreArrays, i.e., there is a bucket for each constant
+ * index and a bucket for NAC index.
+ * <p>
+ * For a LoadArray with constant index, only the stores in the bucket of the
+ * same constant and the NAC bucket may alias it; for NAC index, the stores in
+ * all buckets may alias it; and for UNDEF index, no store may alias it, see
+ * {@link InterConstantPropagation#indexMeetAlias(Value, Value)}. As a store
+ * with UNDEF index does not alias any load either, it is kept out of buckets.
+ * The clients should call {@link #update(StoreArray, Value)} whenever the
+ * index value of a store changes, to move the store to the right bucket.
+ */
+class ArrayStoreBuckets {
+
+    private final PointerAnalysisResult pta;
+
+    /** Constant buckets of each array object: constant index -> stores. */
+    private final Map<Obj, Map<Integer, Set<StoreArray>>> constBuckets = new HashMap<>();
+
+    private final Map<Obj, Set<StoreArray>> nacBuckets = new HashMap<>();
+
+    /** The current index value of each store, i.e., the key of its buckets. */
+    private final Map<StoreArray, Value> indexValues = new HashMap<>();
+
+    ArrayStoreBuckets(PointerAnalysisResult pta) {
+        this.pta = pta;
+    }
+
+    /**
+     * Moves the store to the buckets of given index value. A store which
+     * is updated for the first time is added to the buckets of all objects
+     * pointed to by its base, unless the index is UNDEF.
+     */
+    void update(StoreArray storeArray, Value index) {
+        Value oldIndex = indexValues.put(storeArray, index);
+        if (index.equals(oldIndex)) {
+            return;
+        }
+        for (Obj array : pta.getPointsToSet(storeArray.getArrayAccess().getBase())) {
+            if (oldIndex != null && !oldIndex.isUndef()) {
+                getBucket(array, oldIndex).remove(storeArray);
+            }
+            if (!index.isUndef()) {
+                getBucket(array, index).add(storeArray);
+            }
+        }
+    }
+
+    /**
+     * @return the buckets of the stores which may alias the array access
+     * of given base and index value.
+     */
+    List<Set<StoreArray>> getAliasBuckets(Var base, Value index) {
+        List<Set<StoreArray>> buckets = new ArrayList<>();
+        if (index.isUndef()) {
+            return buckets;
+        }
+        for (Obj array : pta.getPointsToSet(base)) {
+            Set<StoreArray> nacBucket = nacBuckets.get(array);
+            if (nacBucket != null) {
+                buckets.add(nacBucket);
+            }
+            Map<Integer, Set<StoreArray>> arrayConstBuckets = constBuckets.get(array);
+            if (arrayConstBuckets != null) {
+                if (index.isNAC()) {
+                    buckets.addAll(arrayConstBuckets.values());
+                } else {
+                    Set<StoreArray> constBucket = arrayConstBuckets.get(index.getConstant());
+                    if (constBucket != null) {
+                        buckets.add(constBucket);
+                    }
+                }
+            }
+        }
+        return buckets;
+    }
+
+    /** @return the bucket of given array object and constant or NAC index. */
+    private Set<StoreArray> getBucket(Obj array, Value index) {
+        if (index.isConstant()) {
+            return constBuckets.computeIfAbsent(array, o -> new HashMap<>())
+                    .computeIfAbsent(index.getConstant(), i -> new HashSet<>());
+        } else {
+            return nacBuckets.computeIfAbsent(array, o -> new HashSet<>());
+        }
+    }
+}
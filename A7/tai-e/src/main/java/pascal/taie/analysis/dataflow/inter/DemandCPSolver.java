@@ -0,0 +1,367 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Hashes;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Demand-driven solver for inter-procedural constant propagation.
+ * <p>
+ * Instead of solving the whole ICFG, it answers the value of a variable at
+ * a statement by exploring the ICFG backward from the statement, visiting
+ * only the (variable, node) pairs which the queried value depends on.
+ * The answers of intermediate queries are memoized and shared by later
+ * queries. The answers are the same as the ones of
+ * {@link InterConstantPropagation} with alias-aware field and array accesses.
+ * <p>
+ * The solver works on a {@link LazyICFG} which expands the callers of
+ * a method when its entry is reached backward, so that only the methods
+ * visited by the queries are expanded.
+ */
+public class DemandCPSolver {
+
+    private final CallGraph<Stmt, JMethod> callGraph;
+
+    private final LazyICFG icfg;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Cache of the relevant load/store statements,
+     * null if pointer analysis result is not given.
+     */
+    private final LoadStoreStmtCache loadStoreStmtCache;
+
+    /** Entry methods of the ICFG, whose params are NAC at entry. */
+    private final Set<JMethod> entryMethods;
+
+    /** Whether the static StoreFields have been recorded in the cache. */
+    private boolean staticStoresRecorded = false;
+
+    /** Current values of the queries, which are final after being solved. */
+    private final Map<Query, Value> values = new HashMap<>();
+
+    /** Queries that depend on given query. */
+    private final MultiMap<Query, Query> dependents = Maps.newMultiMap();
+
+    private final Set<Query> workList = new LinkedHashSet<>();
+
+    DemandCPSolver(CallGraph<Stmt, JMethod> callGraph, ConstantPropagation cp,
+                   PointerAnalysisResult pta) {
+        this.callGraph = callGraph;
+        this.icfg = new LazyICFG(callGraph, true);
+        this.cp = cp;
+        this.loadStoreStmtCache = pta != null ? new LoadStoreStmtCache(pta) : null;
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the value of given variable flowing into given statement,
+     * i.e., the value before the statement is executed.
+     */
+    public Value valueOf(Var var, Stmt stmt) {
+        icfg.getEntryOf(var.getMethod()); // builds the CFG containing stmt
+        Query query = new Query(var, stmt, true);
+        if (!values.containsKey(query)) {
+            solve(query);
+        }
+        return values.get(query);
+    }
+
+    /**
+     * @return the nodes which have been visited by the queries so far.
+     */
+    public Set<Stmt> getVisitedNodes() {
+        return values.keySet()
+                .stream()
+                .map(query -> query.stmt)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Solves given query and all queries it (transitively) depends on.
+     * The queries solved before are never changed, as their dependencies
+     * have been fully solved.
+     */
+    private void solve(Query query) {
+        demand(query, null);
+        while (!workList.isEmpty()) {
+            Iterator<Query> iterator = workList.iterator();
+            Query current = iterator.next();
+            iterator.remove();
+            Value value = evaluate(current);
+            if (!value.equals(values.put(current, value))) {
+                workList.addAll(dependents.get(current));
+            }
+        }
+    }
+
+    /**
+     * Demands the value of given query on behalf of another query.
+     *
+     * @param query     the query whose value is demanded.
+     * @param dependent the query whose value depends on {@code query},
+     *                  null if it is demanded by client.
+     * @return the current value of {@code query}.
+     */
+    private Value demand(Query query, Query dependent) {
+        if (dependent != null) {
+            dependents.put(query, dependent);
+        }
+        Value value = values.get(query);
+        if (value == null) {  // new query, starts from UNDEF
+            value = Value.getUndef();
+            values.put(query, value);
+            workList.add(query);
+        }
+        return value;
+    }
+
+    private Value demandIn(Var var, Stmt stmt, Query dependent) {
+        return demand(new Query(var, stmt, true), dependent);
+    }
+
+    private Value demandOut(Var var, Stmt stmt, Query dependent) {
+        return demand(new Query(var, stmt, false), dependent);
+    }
+
+    /** @return the value of given query based on current values of its dependencies. */
+    private Value evaluate(Query query) {
+        if (!ConstantPropagation.canHoldInt(query.var)) {
+            return Value.getUndef();
+        }
+        return query.in ? evaluateIn(query) : evaluateOut(query);
+    }
+
+    /** @return the meet value of the var flowing from all in edges. */
+    private Value evaluateIn(Query query) {
+        Value res = Value.getUndef();
+        for (ICFGEdge<Stmt> inEdge : icfg.getInEdgesOf(query.stmt)) {
+            res = cp.meetValue(res, transferEdge(inEdge, query));
+        }
+        return res;
+    }
+
+    /** @return the value of the var of given query flowing through the edge. */
+    private Value transferEdge(ICFGEdge<Stmt> edge, Query query) {
+        Var var = query.var;
+        Stmt source = edge.getSource();
+        if (edge instanceof NormalEdge) {
+            return demandOut(var, source, query);
+        } else if (edge instanceof CallToReturnEdge) {
+            return var.equals(getDef(source)) ?  // the assignee is killed
+                    Value.getUndef() : demandOut(var, source, query);
+        } else if (edge instanceof CallEdge<Stmt> callEdge) {
+            List<Var> params = callEdge.getCallee().getIR().getParams();
+            int i = params.indexOf(var);
+            return i < 0 ? Value.getUndef() : demandOut(
+                    ((Invoke) source).getInvokeExp().getArg(i), source, query);
+        } else {
+            ReturnEdge<Stmt> returnEdge = (ReturnEdge<Stmt>) edge;
+            Value res = Value.getUndef();
+            if (var.equals(getDef(returnEdge.getCallSite()))) {
+                for (Var returnVar : returnEdge.getReturnVars()) {
+                    res = cp.meetValue(res, demandOut(returnVar, source, query));
+                }
+            }
+            return res;
+        }
+    }
+
+    /** @return the value of the var of given query after the stmt is executed. */
+    private Value evaluateOut(Query query) {
+        Var var = query.var;
+        Stmt stmt = query.stmt;
+        Value in = demandIn(var, stmt, query);
+        if (isBoundaryParam(var, stmt)) {
+            // the in value overwrites the boundary value, see InterSolver
+            return in.isUndef() ? Value.getNAC() : in;
+        }
+        if (icfg.isCallSite(stmt) || !var.equals(getDef(stmt))) {
+            return in;
+        }
+        if (stmt instanceof LoadField loadField) {
+            return evaluateLoadField(loadField, query);
+        } else if (stmt instanceof LoadArray loadArray) {
+            return evaluateLoadArray(loadArray, query);
+        } else {
+            List<RValue> uses = stmt.getUses();
+            if (uses.isEmpty()) {
+                return in;
+            }
+            // the last use is the right-hand side expression, see ConstantPropagation
+            CPFact fact = new CPFact();
+            for (RValue use : uses) {
+                if (use instanceof Var useVar) {
+                    fact.update(useVar, demandIn(useVar, stmt, query));
+                }
+            }
+            return ConstantPropagation.evaluate(uses.get(uses.size() - 1), fact);
+        }
+    }
+
+    /** @return true if the var is a param of an entry method at its entry node. */
+    private boolean isBoundaryParam(Var var, Stmt stmt) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        return entryMethods.contains(method) &&
+                icfg.getEntryOf(method).equals(stmt) &&
+                method.getIR().getParams().contains(var);
+    }
+
+    /** @return the meet value of rValue of all relevant StoreFields. */
+    private Value evaluateLoadField(LoadField loadField, Query query) {
+        if (loadStoreStmtCache == null) {
+            return Value.getNAC();
+        }
+        Collection<StoreField> storeFields;
+        if (loadField.getFieldAccess() instanceof InstanceFieldAccess access) {
+            storeFields = loadStoreStmtCache.getStoreFields(access);
+        } else {
+            recordStaticStores();
+            storeFields = loadStoreStmtCache.getStoreFields(
+                    (StaticFieldAccess) loadField.getFieldAccess());
+        }
+        Value res = Value.getUndef();
+        for (StoreField storeField : storeFields) {
+            res = cp.meetValue(res,
+                    demandIn(storeField.getRValue(), storeField, query));
+        }
+        return res;
+    }
+
+    /** @return the meet value of rValue of all relevant StoreArrays whose index may alias. */
+    private Value evaluateLoadArray(LoadArray loadArray, Query query) {
+        if (loadStoreStmtCache == null) {
+            return Value.getNAC();
+        }
+        Value index = demandIn(loadArray.getArrayAccess().getIndex(), loadArray, query);
+        Value res = Value.getUndef();
+        for (StoreArray storeArray :
+                loadStoreStmtCache.getStoreArrays(loadArray.getArrayAccess())) {
+            Value storeIndex = demandIn(
+                    storeArray.getArrayAccess().getIndex(), storeArray, query);
+            if (InterConstantPropagation.indexMeetAlias(index, storeIndex)) {
+                res = cp.meetValue(res,
+                        demandIn(storeArray.getRValue(), storeArray, query));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Records the static StoreFields in all reachable methods, this is done
+     * only once when the first static LoadField is evaluated. The statements
+     * are scanned from the IR, without expanding the ICFG.
+     */
+    private void recordStaticStores() {
+        if (!staticStoresRecorded) {
+            callGraph.reachableMethods().forEach(method -> {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof StoreField storeField && storeField.isStatic()) {
+                        loadStoreStmtCache.put(
+                                (StaticFieldAccess) storeField.getFieldAccess(), storeField);
+                    }
+                }
+            });
+            staticStoresRecorded = true;
+        }
+    }
+
+    /** @return the variable defined by given stmt, or null if absent. */
+    private static Var getDef(Stmt stmt) {
+        Optional<LValue> def = stmt.getDef();
+        return def.isPresent() && def.get() instanceof Var var ? var : null;
+    }
+
+    /**
+     * A query of the value of a variable flowing into (in is true)
+     * or out of (in is false) a statement.
+     */
+    private static class Query {
+
+        private final Var var;
+
+        private final Stmt stmt;
+
+        private final boolean in;
+
+        private Query(Var var, Stmt stmt, boolean in) {
+            this.var = var;
+            this.stmt = stmt;
+            this.in = in;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Query query = (Query) o;
+            return in == query.in && var.equals(query.var) && stmt.equals(query.stmt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Hashes.hash(var, stmt, in);
+        }
+
+        @Override
+        public String toString() {
+            return (in ? "IN" : "OUT") + "[" + stmt + "](" + var + ")";
+        }
+    }
+}
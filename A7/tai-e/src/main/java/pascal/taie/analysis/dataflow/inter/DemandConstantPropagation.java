@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+
+/**
+ * Demand-driven inter-procedural constant propagation.
+ * <p>
+ * The result of this analysis is a {@link DemandCPSolver}, which answers
+ * the constant value of a variable at a statement on demand.
+ * If option "sinks" is given, the values of the arguments of the call sites
+ * to the sink methods are queried and logged.
+ */
+public class DemandConstantPropagation extends ProgramAnalysis {
+
+    public static final String ID = "demand-constprop";
+
+    private static final Logger logger = LogManager.getLogger(DemandConstantPropagation.class);
+
+    public DemandConstantPropagation(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public Object analyze() {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        String ptaId = getOptions().getString("pta");
+        PointerAnalysisResult pta = ptaId != null ? World.get().getResult(ptaId) : null;
+        DemandCPSolver solver = new DemandCPSolver(callGraph,
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID)), pta);
+        @SuppressWarnings("unchecked")
+        List<String> sinks = (List<String>) getOptions().get("sinks");
+        if (sinks != null && !sinks.isEmpty()) {
+            querySinks(callGraph, solver, sinks);
+        }
+        return solver;
+    }
+
+    /** Queries and logs the values of the arguments of the call sites to the sinks. */
+    private static void querySinks(CallGraph<Stmt, JMethod> callGraph,
+                                   DemandCPSolver solver, List<String> sinks) {
+        callGraph.reachableMethods()
+                .filter(method -> sinks.contains(method.getSignature()))
+                .flatMap(sink -> callGraph.getCallersOf(sink).stream())
+                .distinct()
+                .forEach(callSite -> {
+                    List<Var> args = ((Invoke) callSite).getInvokeExp().getArgs();
+                    for (int i = 0; i < args.size(); ++i) {
+                        logger.info("{} arg{}: {}", callSite, i,
+                                solver.valueOf(args.get(i), callSite));
+                    }
+                });
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Provides the analysis-specific information for incremental
+ * inter-procedural data-flow analysis, which persists the results
+ * of a run and reuses them in the next run.
+ *
+ * @param <Method> type of ICFG methods
+ * @param <Node>   type of ICFG nodes
+ * @param <Fact>   type of data-flow facts
+ * @see InterResultCache
+ */
+public interface IncrementalSupport<Method, Node, Fact> {
+
+    /**
+     * @return the identifier of given method which is stable across runs.
+     */
+    String getMethodId(Method method);
+
+    /**
+     * @return the fingerprint of given method. If the fingerprint of a method
+     * is unchanged across runs, then the facts of its nodes are the same
+     * as long as the facts flowing into the method are unchanged.
+     * Thus, the fingerprint should cover the IR of the method and everything
+     * else its facts depend on, e.g., its callers and callees in ICFG.
+     */
+    String getFingerprint(Method method);
+
+    /**
+     * @return the nodes of given method in a stable order, i.e., the nodes
+     * of the methods with the same fingerprint are in the same order.
+     */
+    List<Node> getNodesOf(Method method);
+
+    /**
+     * @return whether any node of given method has facts in given result.
+     * {@link LazyInterSolver} gives no facts to the methods which it never
+     * reaches, and they are told apart without building their nodes.
+     */
+    boolean isReached(Method method, DataflowResult<Node, Fact> result);
+
+    /**
+     * @return the nodes whose facts depend on the OUT fact of given node,
+     * besides its successors in ICFG.
+     */
+    Collection<Node> getDependentsOf(Node node);
+
+    /**
+     * @return the IDs of the heap locations which may be modified by the
+     * stores of given method. The IDs are stable across runs, so that the
+     * loads of the locations which are no longer stored can be found.
+     */
+    Collection<String> getStoredLocationsOf(Method method);
+
+    /**
+     * @return the nodes which may read the location of given ID,
+     * see {@link #getStoredLocationsOf(Object)}.
+     */
+    Collection<Node> getLoadsOf(String location);
+
+    /**
+     * Notifies that the facts of given node are reused and the node will not
+     * be transferred, so that the analysis can restore the states which it
+     * builds when transferring the node.
+     */
+    default void onReused(Node node, Fact in, Fact out) {
+    }
+
+    /**
+     * @return the string representation of given fact, which does not
+     * contain line separators or tabs.
+     */
+    String encodeFact(Fact fact);
+
+    /**
+     * @return the fact of given method decoded from {@code s}, or null if
+     * {@code s} is not a valid encoding of a fact of the method.
+     */
+    Fact decodeFact(Method method, String s);
+}
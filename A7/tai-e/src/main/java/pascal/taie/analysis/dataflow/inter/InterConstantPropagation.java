@@ -26,23 +26,31 @@ import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.proginfo.FieldRef;
 import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.function.Function;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
@@ -55,6 +63,14 @@ public class InterConstantPropagation extends
     private final ConstantPropagation cp;
     private final FieldAccessEvaluator fieldAccessEvaluator;
     private LoadStoreStmtCache loadStoreStmtCache;
+    private PointerAnalysisResult pta;
+
+    /** Used to find the LoadFields which may read the field modified by a StoreField. */
+    private LoadFieldIndex loadFieldIndex;
+    private final Map<StoreField, Set<LoadField>> loadFieldsReadingCache = new HashMap<>();
+
+    /** Buckets of StoreArrays, a StoreArray is put into the buckets when it is transferred. */
+    private ArrayStoreBuckets arrayStoreBuckets;
 
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
@@ -65,9 +81,11 @@ public class InterConstantPropagation extends
     @Override
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
+        pta = World.get().getResult(ptaId);
         // You can do initialization work here
         loadStoreStmtCache = new LoadStoreStmtCache(pta);
+        loadFieldIndex = new LoadFieldIndex(pta);
+        arrayStoreBuckets = new ArrayStoreBuckets(pta);
     }
 
     @Override
@@ -109,12 +127,27 @@ public class InterConstantPropagation extends
      */
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
+        recordTransferredStmt(stmt, in);
         boolean changed = applyTransferFunction(stmt, in, out);
-        recordStaticFieldAccessStmt(stmt);
         appendRelatedStmtToWL(changed, stmt);
         return changed;
     }
 
+    /**
+     * Records the static LoadFields/StoreFields and the StoreArrays when they
+     * are transferred, instead of scanning the whole program beforehand.
+     * The stmts which have not been transferred have initial in facts,
+     * thus they contribute nothing to the relevant loads.
+     */
+    private void recordTransferredStmt(Stmt stmt, CPFact in) {
+        recordStaticFieldAccessStmt(stmt);
+        if (stmt instanceof StoreArray storeArray) {
+            // the index value of the store may change
+            arrayStoreBuckets.update(storeArray,
+                    in.get(storeArray.getArrayAccess().getIndex()));
+        }
+    }
+
     /**
      * Apply transfer function to in fact.
      *
@@ -146,27 +179,66 @@ public class InterConstantPropagation extends
      * @param append do append if true, do nothing if false
      */
     private void appendRelatedStmtToWL(boolean append, Stmt sourceStmt) {
-        if (!append) {  // return;
-        } else if (sourceStmt instanceof StoreField storeField) {
-            appendRelevantLoadFieldsToWL(storeField);
-        } else if (sourceStmt instanceof StoreArray storeArray) {
-            appendAbsentNodesToWL(
-                    loadStoreStmtCache.getLoadArrays(storeArray.getArrayAccess()));
+        if (append) {
+            appendAbsentNodesToWL(getRelevantLoads(sourceStmt));
         }
     }
 
     /**
-     * Append relevant LoadFields to WL.
-     * e.g. if stmt is `x.f = a`, append `y = x.f` to WL
+     * Get relevant LoadFields and LoadArrays of given store.
+     * e.g. if stmt is `x.f = a`, returns `y = x.f`, where y is alias of x.
      *
-     * @param storeField a StoreField: x.f = a
+     * @return the relevant loads, or empty set if stmt is not a store.
      */
-    private void appendRelevantLoadFieldsToWL(StoreField storeField) {
-        if (storeField.getFieldAccess() instanceof InstanceFieldAccess instanceFieldAccess) {
-            appendAbsentNodesToWL(loadStoreStmtCache.getLoadFields(instanceFieldAccess));
-        } else if (storeField.getFieldAccess() instanceof StaticFieldAccess staticFieldAccess) {
-            appendAbsentNodesToWL(loadStoreStmtCache.getLoadFields(staticFieldAccess));
+    private Collection<? extends Stmt> getRelevantLoads(Stmt stmt) {
+        if (stmt instanceof StoreField storeField) {
+            if (storeField.isStatic()) {
+                return loadStoreStmtCache.getLoadFields(
+                        (StaticFieldAccess) storeField.getFieldAccess());
+            } else {
+                return loadFieldsReadingCache.computeIfAbsent(storeField,
+                        this::findLoadFieldsReading);
+            }
+        } else if (stmt instanceof StoreArray storeArray) {
+            return loadStoreStmtCache.getLoadArrays(storeArray.getArrayAccess());
         }
+        return Set.of();
+    }
+
+    /**
+     * Find the LoadFields which may read the locations modified by given `x.f = a`,
+     * i.e., the LoadFields indexed by obj.f where obj is pointed to by x.
+     */
+    private Set<LoadField> findLoadFieldsReading(StoreField storeField) {
+        InstanceFieldAccess access = (InstanceFieldAccess) storeField.getFieldAccess();
+        JField field = storeField.getFieldRef().resolveNullable();
+        if (field == null) {  // the index knows nothing about unresolved field
+            return loadStoreStmtCache.getLoadFields(access);
+        }
+        Set<LoadField> loadFields = new HashSet<>();
+        for (Obj obj : pta.getPointsToSet(access.getBase())) {
+            loadFields.addAll(loadFieldIndex.getLoadFieldsReading(obj, field));
+        }
+        return loadFields;
+    }
+
+    /**
+     * Get relevant StoreFields and StoreArrays of given load.
+     *
+     * @return the relevant stores, or empty set if stmt is not a load.
+     */
+    private Collection<? extends Stmt> getRelevantStores(Stmt stmt) {
+        if (stmt instanceof LoadField loadField) {
+            if (loadField.getFieldAccess() instanceof InstanceFieldAccess instanceFieldAccess) {
+                return loadStoreStmtCache.getStoreFields(instanceFieldAccess);
+            } else {
+                return loadStoreStmtCache.getStoreFields(
+                        (StaticFieldAccess) loadField.getFieldAccess());
+            }
+        } else if (stmt instanceof LoadArray loadArray) {
+            return loadStoreStmtCache.getStoreArrays(loadArray.getArrayAccess());
+        }
+        return Set.of();
     }
 
     /**
@@ -195,10 +267,20 @@ public class InterConstantPropagation extends
         return out.copyFrom(in);
     }
 
-    /** @return the copy of out fact: normal edge does nothing. */
+    /**
+     * Normal edges and the call-to-return edges whose call site has no assignee
+     * do nothing, so the solver can meet the out fact of source node directly.
+     */
+    @Override
+    public boolean isIdentityEdge(ICFGEdge<Stmt> edge) {
+        return edge instanceof NormalEdge ||
+                (edge instanceof CallToReturnEdge && getAssignee(edge.getSource()) == null);
+    }
+
+    /** @return the out fact itself: normal edge does nothing. */
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        return out.copy();
+        return out;
     }
 
     /**
@@ -207,18 +289,22 @@ public class InterConstantPropagation extends
      */
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
+        Var assignee = getAssignee(edge.getSource());
+        if (assignee == null) {  // no assignee, the edge does nothing
+            return out;
+        }
         CPFact targetFact = out.copy();
+        targetFact.remove(assignee);  // remove the assignee.
+        return targetFact;
+    }
 
-        Optional<LValue> defOptional = edge.getSource().getDef();
-
-        if (defOptional.isPresent()) {  // Assignee of call site exists
-            LValue lValue = defOptional.get();
-            if (lValue instanceof Var assignee) {  // assignee is a variable
-                targetFact.remove(assignee);  // remove the assignee.
-            }
+    /** @return the variable assigned by given call site, or null if absent. */
+    private Var getAssignee(Stmt callSite) {
+        Optional<LValue> defOptional = callSite.getDef();
+        if (defOptional.isPresent() && defOptional.get() instanceof Var assignee) {
+            return assignee;
         }
-
-        return targetFact;
+        return null;
     }
 
     /**
@@ -277,6 +363,22 @@ public class InterConstantPropagation extends
         return res;
     }
 
+    @Override
+    protected IncrementalSupport<JMethod, Stmt, CPFact> getIncrementalSupport() {
+        return new CPIncrementalSupport();
+    }
+
+    /** @return true if the index1 and index2 meet the requirement of array access alias. */
+    static boolean indexMeetAlias(Value index1, Value index2) {
+        if (index1.isUndef() || index2.isUndef()) {
+            return false;
+        } else if (index1.isNAC() || index2.isNAC()) {
+            return true;
+        } else {
+            return index1.getConstant() == index2.getConstant();
+        }
+    }
+
     /**
      * The Evaluator of expression, here only implements the evaluation of
      * InstanceFieldAccess, StaticFieldAccess and ArrayAccess.
@@ -328,13 +430,18 @@ public class InterConstantPropagation extends
                 throw new AnalysisException(
                         "the index of the arrayAccess " + arrayAccess + " is null!");
             }
-            return meetValueStoredIn(loadStoreStmtCache.getStoreArrays(arrayAccess));
+            return meetValueStoredIn(arrayAccess.getBase());
         }
 
-        private Value meetValueStoredIn(Collection<StoreArray> storeArrays) {
+        /**
+         * @return the meet value of rValue of the StoreArrays in the buckets
+         * which may alias the array access.
+         */
+        private Value meetValueStoredIn(Var base) {
             Value res = Value.getUndef();
-            for (StoreArray storeArray : storeArrays) {
-                if (indexMeetAlias(arrayIndexValue, getValueOfArrayIndex(storeArray))) {
+            for (Set<StoreArray> bucket :
+                    arrayStoreBuckets.getAliasBuckets(base, arrayIndexValue)) {
+                for (StoreArray storeArray : bucket) {
                     Value valueOfRVar = solver.getInFactOf(storeArray).get(storeArray.getRValue());
                     res = cp.meetValue(res, valueOfRVar);
                 }
@@ -356,209 +463,197 @@ public class InterConstantPropagation extends
         private Value getValueOfArrayIndex(ArrayAccess arrayAccess, Stmt arrayStmt) {
             return solver.getInFactOf(arrayStmt).get(arrayAccess.getIndex());
         }
-
-        /** @return true if the index1 and index2 meet the requirement of array access alias. */
-        private boolean indexMeetAlias(Value index1, Value index2) {
-            if (index1.isUndef() || index2.isUndef()) {
-                return false;
-            } else if (index1.isNAC() || index2.isNAC()) {
-                return true;
-            } else {
-                return index1.getConstant() == index2.getConstant();
-            }
-        }
     }
 
-    /** The class caches the relevant StoreFields, LoadFields, StoreArrays, LoadArrays. */
-    private static class LoadStoreStmtCache {
-        private final PointerAnalysisResult pta;
-        private final Map<Var, Set<Var>> aliasCache;
-        private final Map<InstanceFieldAccess, Set<StoreField>> storeFieldsOfInstanceFieldAccess;
-        private final Map<InstanceFieldAccess, Set<LoadField>> loadFieldsOfInstanceFieldAccess;
-        private final Map<FieldRef, Set<StoreField>> storeFieldsOfStaticFieldAccess;
-        private final Map<FieldRef, Set<LoadField>> loadFieldsOfStaticFieldAccess;
-
-        /** The key of storeArray and loadArray is the base of array access. */
-        private final Map<Var, Set<StoreArray>> storeArraysOfArrayAccess;
-        private final Map<Var, Set<LoadArray>> loadArraysOfArrayAccess;
-
-        LoadStoreStmtCache(PointerAnalysisResult pta) {
-            this.pta = pta;
-            aliasCache = new HashMap<>();
-            storeFieldsOfInstanceFieldAccess = new HashMap<>();
-            loadFieldsOfInstanceFieldAccess = new HashMap<>();
-            storeFieldsOfStaticFieldAccess = new HashMap<>();
-            loadFieldsOfStaticFieldAccess = new HashMap<>();
-            storeArraysOfArrayAccess = new HashMap<>();
-            loadArraysOfArrayAccess = new HashMap<>();
-        }
-
-        /** @return all aliases of given var including itself from the alias cache. */
-        private Set<Var> getAliasesOf(Var var) {
-            return getAndCache(aliasCache, var, this::findAliasesOf);
-        }
-
-        /** @return all aliases of given base including itself from the pointer analysis result. */
-        private Set<Var> findAliasesOf(Var base) {
-            HashSet<Var> aliases = new HashSet<>();
-            Set<Obj> ptsOfBase = pta.getPointsToSet(base);
-
-            for (Var var : pta.getVars()) {
-                if (!Collections.disjoint(ptsOfBase, pta.getPointsToSet(var))) {
-                    aliases.add(var);
-                }
-            }
+    /**
+     * Incremental support of constant propagation. Besides the IR, the fingerprint
+     * of a method covers its callers, the callees of its call sites and the
+     * stores relevant to its loads, as the facts of the method depend on them.
+     */
+    private class CPIncrementalSupport implements IncrementalSupport<JMethod, Stmt, CPFact> {
 
-            return aliases;
-        }
+        /** ID of the location of all array elements, as arrays have no stable IDs. */
+        private static final String ARRAY_LOCATION = "[]";
 
-        /**
-         * get from the cache, if the value is not existing, find and cache it.
-         *
-         * @param key the key
-         * @param finder the function to find the value
-         * @param <K> The type of key
-         * @param <V> The type of the set of the value.
-         * @return the set of the value
-         */
-        private <K, V> Set<V> getAndCache(Map<K, Set<V>> cache, K key, Function<K, Set<V>> finder) {
-            Set<V> res = cache.get(key);
-            if (res == null || res.isEmpty()) {
-                res = finder.apply(key);
-                cache.put(key, res);
-            }
-            return res;
-        }
+        private final Map<JMethod, List<Stmt>> nodesCache = new HashMap<>();
 
-        /* ---------------------- Instance Field Access ---------------------- */
-
-        /** @return the related load fields of given key(x.f): a = x.f. */
-        Set<LoadField> getLoadFields(InstanceFieldAccess key) {
-            return getAndCache(loadFieldsOfInstanceFieldAccess, key, this::findInstanceLoadFields);
-        }
+        /** The loads of each location, built on first query. */
+        private MultiMap<String, Stmt> loads;
 
         /**
-         * @param instanceFieldAccess x.f
-         * @return all instance load fields of given x.f (including the alias)
+         * The fingerprints and dependents cover the static field accesses of all
+         * reachable methods, thus they are recorded before the cache is loaded.
          */
-        private Set<LoadField> findInstanceLoadFields(InstanceFieldAccess instanceFieldAccess) {
-            return findInstanceLoadOrStoreFields(instanceFieldAccess, Var::getLoadFields);
-        }
-
-        /** @return the related store fields of given key(x.f): x.f = b. */
-        Set<StoreField> getStoreFields(InstanceFieldAccess key) {
-            return getAndCache(storeFieldsOfInstanceFieldAccess, key,
-                    this::findInstanceStoreFields);
+        private CPIncrementalSupport() {
+            pta.getCallGraph()
+                    .reachableMethods()
+                    .flatMap(m -> m.getIR().stmts())
+                    .forEach(InterConstantPropagation.this::recordStaticFieldAccessStmt);
         }
 
-        /**
-         * @param instanceFieldAccess x.f
-         * @return all instance store fields of given x.f (including the alias)
-         */
-        private Set<StoreField> findInstanceStoreFields(InstanceFieldAccess instanceFieldAccess) {
-            return findInstanceLoadOrStoreFields(instanceFieldAccess, Var::getStoreFields);
+        @Override
+        public String getMethodId(JMethod method) {
+            return method.getSignature();
         }
 
-        /**
-         * @param instanceFieldAccess the instance field access a.f
-         * @param getLoadOrStoreFieldsOf Var::getLoadFields or Var::getStoreFields
-         * @param <T> LoadField or StoreField
-         * @return all LoadFields or StoreFields of all aliases
-         */
-        private <T extends FieldStmt> Set<T> findInstanceLoadOrStoreFields(
-                InstanceFieldAccess instanceFieldAccess,
-                Function<Var, List<T>> getLoadOrStoreFieldsOf
-        ) {
-            Var base = instanceFieldAccess.getBase();
-            FieldRef fieldRef = instanceFieldAccess.getFieldRef();
-            Set<T> loadOrStoreFields = new HashSet<>();
-
-            for (Var var : getAliasesOf(base)) {
-                for (T loadOrStoreField : getLoadOrStoreFieldsOf.apply(var)) {
-                    if (loadOrStoreField.getFieldRef().equals(fieldRef)) {
-                        loadOrStoreFields.add(loadOrStoreField);
-                    }
+        @Override
+        public String getFingerprint(JMethod method) {
+            StringBuilder builder = new StringBuilder();
+            icfg.entryMethods()
+                    .filter(method::equals)
+                    .forEach(m -> builder.append("entry\n"));
+            icfg.getCallersOf(method)
+                    .stream()
+                    .map(callSite -> getStmtId(((Invoke) callSite).getContainer(), callSite))
+                    .sorted()
+                    .forEach(id -> builder.append(id).append('\n'));
+            for (Stmt stmt : method.getIR()) {
+                builder.append(IRPrinter.toString(stmt)).append('\n');
+                if (icfg.isCallSite(stmt)) {
+                    icfg.getCalleesOf(stmt)
+                            .stream()
+                            .map(JMethod::getSignature)
+                            .sorted()
+                            .forEach(sig -> builder.append(sig).append('\n'));
                 }
+                getRelevantStores(stmt)
+                        .stream()
+                        .map(store -> getStmtId(getStoredVar(store).getMethod(), store))
+                        .sorted()
+                        .forEach(id -> builder.append(id).append('\n'));
+            }
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                return HexFormat.of().formatHex(
+                        digest.digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new AnalysisException("Failed to compute fingerprint", e);
             }
-            return loadOrStoreFields;
         }
 
-        /* ---------------------- Static Field Access ---------------------- */
-
-        /** @return the related load fields of given key(T.f): a = T.f. */
-        Set<LoadField> getLoadFields(StaticFieldAccess key) {
-            return getStaticFields(loadFieldsOfStaticFieldAccess, key.getFieldRef());
+        /**
+         * @return the ID of given stmt, which is stable if its method is unchanged.
+         * The method is given by the caller, as the ICFG may be constructed lazily
+         * and not contain the stmt yet.
+         */
+        private static String getStmtId(JMethod method, Stmt stmt) {
+            return method.getSignature() + "/" + stmt.getIndex();
         }
 
-        /** @return the related store fields of given key(T.f): T.f = b. */
-        Set<StoreField> getStoreFields(StaticFieldAccess key) {
-            return getStaticFields(storeFieldsOfStaticFieldAccess, key.getFieldRef());
+        /** @return the variable stored by given StoreField or StoreArray. */
+        private static Var getStoredVar(Stmt store) {
+            return store instanceof StoreField storeField ?
+                    storeField.getRValue() : ((StoreArray) store).getRValue();
         }
 
-        /** Record the given static loadField. */
-        boolean put(StaticFieldAccess staticFieldAccess, LoadField loadField) {
-            return put(loadFieldsOfStaticFieldAccess, staticFieldAccess.getFieldRef(), loadField);
+        /** @return entry, stmts in IR and exit of the method. */
+        @Override
+        public List<Stmt> getNodesOf(JMethod method) {
+            return nodesCache.computeIfAbsent(method, m -> {
+                List<Stmt> nodes = new ArrayList<>();
+                nodes.add(icfg.getEntryOf(m));
+                nodes.addAll(m.getIR().getStmts());
+                nodes.add(icfg.getExitOf(m));
+                return nodes;
+            });
         }
 
-        /** Record the given static storeField. */
-        boolean put(StaticFieldAccess staticFieldAccess, StoreField storeField) {
-            return put(storeFieldsOfStaticFieldAccess, staticFieldAccess.getFieldRef(), storeField);
+        /** A reached method has facts at the stmts of its IR, e.g., the first one. */
+        @Override
+        public boolean isReached(JMethod method, DataflowResult<Stmt, CPFact> result) {
+            return method.getIR().stmts().anyMatch(stmt -> result.getInFact(stmt) != null);
         }
 
-        /**
-         * add the value in the set corresponding to the key, if the set is non-existing,
-         * creates a new set.
-         */
-        private <K, V> boolean put(Map<K, Set<V>> map, K key, V value) {
-            Set<V> set = map.get(key);
-            if (set == null) {
-                map.put(key, new HashSet<>(Set.of(value)));
-                return true;
-            } else {
-                return set.add(value);
-            }
+        @Override
+        public Collection<Stmt> getDependentsOf(Stmt stmt) {
+            return Collections.unmodifiableCollection(getRelevantLoads(stmt));
         }
 
-        private <K, V> Set<V> getStaticFields(Map<K, Set<V>> map, K key) {
-            return map.getOrDefault(key, new HashSet<>());
+        @Override
+        public Collection<String> getStoredLocationsOf(JMethod method) {
+            return method.getIR()
+                    .stmts()
+                    .filter(stmt -> stmt instanceof StoreField || stmt instanceof StoreArray)
+                    .map(CPIncrementalSupport::getLocationOf)
+                    .toList();
         }
 
-        /* ---------------------- Array Access ---------------------- */
-
-        Set<StoreArray> getStoreArrays(ArrayAccess arrayAccess) {
-            return getAndCache(storeArraysOfArrayAccess, arrayAccess.getBase(),
-                    this::findStoreArrays);
+        @Override
+        public Collection<Stmt> getLoadsOf(String location) {
+            if (loads == null) {
+                loads = Maps.newMultiMap();
+                pta.getCallGraph()
+                        .reachableMethods()
+                        .flatMap(m -> m.getIR().stmts())
+                        .filter(stmt -> stmt instanceof LoadField || stmt instanceof LoadArray)
+                        .forEach(load -> loads.put(getLocationOf(load), load));
+            }
+            return loads.get(location);
         }
 
-        Set<LoadArray> getLoadArrays(ArrayAccess arrayAccess) {
-            return getAndCache(loadArraysOfArrayAccess, arrayAccess.getBase(),
-                    this::findLoadArrays);
+        /**
+         * @return the ID of the location accessed by given field or array stmt.
+         * A field is identified by the signature of the resolved field, so that
+         * the references to the same field have the same ID.
+         */
+        private static String getLocationOf(Stmt stmt) {
+            if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+                FieldRef ref = fieldStmt.getFieldRef();
+                JField field = ref.resolveNullable();
+                return field != null ? field.toString() : ref.toString();
+            }
+            return ARRAY_LOCATION;
         }
 
-        /** @return all storeArrays of given arrayAccess (a[i]): a[i] = b */
-        private Set<StoreArray> findStoreArrays(Var base) {
-            return findLoadOrStoreArrays(base, Var::getStoreArrays);
+        /** The reused stmts are recorded as if they were transferred. */
+        @Override
+        public void onReused(Stmt stmt, CPFact in, CPFact out) {
+            recordTransferredStmt(stmt, in);
         }
 
-        /** @return all loadArrays of given arrayAccess (a[i]): b = a[i] */
-        private Set<LoadArray> findLoadArrays(Var base) {
-            return findLoadOrStoreArrays(base, Var::getLoadArrays);
+        /** Encodes each variable as "index:name=value", in the order of indexes. */
+        @Override
+        public String encodeFact(CPFact fact) {
+            StringJoiner joiner = new StringJoiner(",");
+            fact.keySet()
+                    .stream()
+                    .sorted(Comparator.comparingInt(Var::getIndex))
+                    .forEach(var -> joiner.add(
+                            var.getIndex() + ":" + var.getName() + "=" + fact.get(var)));
+            return joiner.toString();
         }
 
         /**
-         * @param base The base var of arrayAccess, e.g. the base of a[i] is a
-         * @param aliasStmtsGetter getLoadArrays of getStoreArrays
-         * @param <T> LoadArray or StoreArray
-         * @return all loadArrays or storeArrays of all aliases
+         * Decodes the variables by their indexes in the IR, and checks that
+         * the names match, so that the facts of a different IR are rejected.
          */
-        private <T extends Stmt> Set<T> findLoadOrStoreArrays(Var base,
-                Function<Var, List<T>> aliasStmtsGetter
-        ) {
-            Set<T> loadOrStoreArrays = new HashSet<>();
-            for (Var alias : getAliasesOf(base)) {
-                loadOrStoreArrays.addAll(aliasStmtsGetter.apply(alias));
+        @Override
+        public CPFact decodeFact(JMethod method, String s) {
+            List<Var> vars = method.getIR().getVars();
+            CPFact fact = new CPFact();
+            if (s.isEmpty()) {
+                return fact;
+            }
+            for (String entry : s.split(",")) {
+                int colon = entry.indexOf(':');
+                int eq = entry.lastIndexOf('=');
+                if (colon < 0 || eq < colon) {
+                    return null;
+                }
+                try {
+                    int index = Integer.parseInt(entry.substring(0, colon));
+                    if (index < 0 || index >= vars.size() ||
+                            !vars.get(index).getName().equals(entry.substring(colon + 1, eq))) {
+                        return null;
+                    }
+                    String value = entry.substring(eq + 1);
+                    fact.update(vars.get(index), value.equals("NAC") ?
+                            Value.getNAC() : Value.makeConstant(Integer.parseInt(value)));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
             }
-            return loadOrStoreArrays;
+            return fact;
         }
     }
 }
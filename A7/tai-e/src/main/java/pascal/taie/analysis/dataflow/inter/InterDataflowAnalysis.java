@@ -68,7 +68,17 @@ public interface InterDataflowAnalysis<Node, Fact> {
      *
      * @param edge the ICFG edge that the transfer function is applied on.
      * @param out  the OUT fact of source node of the edge.
-     * @return the result of edge transfer function.
+     * @return the result of edge transfer function, which may be cached
+     * by the solver, thus it should not be modified afterwards.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * @return true if the transfer function of given edge is identity,
+     * then the solver meets the OUT fact of source node into the target
+     * directly, without calling {@link #transferEdge(ICFGEdge, Object)}.
+     */
+    default boolean isIdentityEdge(ICFGEdge<Node> edge) {
+        return false;
+    }
 }
@@ -0,0 +1,381 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Pair;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persists the results of {@link InterSolver} together with the fingerprints
+ * of methods, and computes the facts which can be reused by the next run.
+ * <p>
+ * The facts of a node are reused only if the fingerprint of its method is
+ * unchanged, and it is not (transitively) dependent on the nodes of changed
+ * methods, thus the solver only needs to re-solve the remaining nodes, and
+ * the results are the same as the ones computed from scratch.
+ * <p>
+ * The dependencies in current ICFG do not cover the call edges and stores
+ * which have been removed from the changed methods, e.g., the parameters of
+ * a callee which is no longer called by a changed method, and the loads
+ * which read a field no longer stored by a changed method. Thus, the callees
+ * and the stored locations of each method are also persisted, and those of
+ * the changed and removed methods are invalidated together with their nodes.
+ * <p>
+ * The results are stored in a text file, for each method, there is a line
+ * of method ID, fingerprint, callees, stored locations and number of nodes,
+ * followed by the encoded IN and OUT facts of each node.
+ * <p>
+ * With {@link LazyInterSolver}, the methods and nodes which are not reached
+ * have no facts, and they are recorded as absent. The nodes of a method are
+ * built only if it has facts to reuse or it is changed, and the walk of the
+ * invalidation only expands the methods of the invalidated nodes, thus the
+ * unreached part of {@link pascal.taie.analysis.graph.icfg.LazyICFG} stays
+ * unexpanded.
+ *
+ * @param <Method> type of ICFG methods
+ * @param <Node>   type of ICFG nodes
+ * @param <Fact>   type of data-flow facts
+ */
+class InterResultCache<Method, Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(InterResultCache.class);
+
+    private static final String SEP = "\t";
+
+    /** Number of nodes of an unreached method, or facts of an unreached node. */
+    private static final String ABSENT = "-";
+
+    /** Separator of the callees and the stored locations of a method. */
+    private static final String LIST_SEP = ";";
+
+    private final IncrementalSupport<Method, Node, Fact> support;
+
+    private final CallGraph<Node, Method> callGraph;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Path path;
+
+    /**
+     * The reachable methods with their fingerprints, computed on the first
+     * {@link #load()} or {@link #store(DataflowResult)}.
+     */
+    private Map<Method, String> fingerprints;
+
+    InterResultCache(IncrementalSupport<Method, Node, Fact> support,
+                     CallGraph<Node, Method> callGraph,
+                     ICFG<Method, Node> icfg, Path path) {
+        this.support = support;
+        this.callGraph = callGraph;
+        this.icfg = icfg;
+        this.path = path;
+    }
+
+    /**
+     * @return the reachable methods in the call graph with their fingerprints.
+     * The methods are obtained from the call graph instead of the ICFG,
+     * so that a lazily-constructed ICFG is not fully expanded.
+     */
+    private Map<Method, String> getFingerprints() {
+        if (fingerprints == null) {
+            fingerprints = new LinkedHashMap<>();
+            callGraph.reachableMethods().forEach(method ->
+                    fingerprints.put(method, support.getFingerprint(method)));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * @return the facts of previous run which can be reused in this run.
+     */
+    DataflowResult<Node, Fact> load() {
+        DataflowResult<Node, Fact> reused = new DataflowResult<>();
+        if (!Files.exists(path)) {
+            return reused;
+        }
+        Map<String, Record> records = read();
+        // decode the facts of unchanged methods, and collect the nodes of
+        // changed methods and the methods whose facts cannot be decoded
+        Set<Node> invalid = new HashSet<>();
+        Map<Method, List<Pair<Fact, Fact>>> unchanged = new HashMap<>();
+        Map<String, Method> methods = new HashMap<>();
+        Set<String> staleCallees = new HashSet<>();
+        Set<String> staleLocations = new HashSet<>();
+        Set<Method> changed = new HashSet<>();
+        Map<Method, Record> unreached = new HashMap<>();
+        int total = 0;
+        for (Map.Entry<Method, String> entry : getFingerprints().entrySet()) {
+            Method method = entry.getKey();
+            String id = support.getMethodId(method);
+            methods.put(id, method);
+            Record record = records.remove(id);
+            boolean same = record != null && record.fingerprint.equals(entry.getValue());
+            if (same && record.facts == null) {
+                // not reached in previous run, its nodes are not built
+                unreached.put(method, record);
+                continue;
+            }
+            List<Node> nodes = support.getNodesOf(method);
+            total += nodes.size();
+            List<Pair<Fact, Fact>> facts = null;
+            if (same && record.facts.size() == nodes.size()) {
+                facts = decode(method, record);
+            }
+            if (facts != null) {
+                unchanged.put(method, facts);
+            } else {
+                changed.add(method);
+                invalid.addAll(nodes);
+                if (record != null) {
+                    staleCallees.addAll(record.callees);
+                    staleLocations.addAll(record.locations);
+                }
+            }
+        }
+        // the remaining records belong to the methods which are no longer reachable
+        records.values().forEach(record -> {
+            staleCallees.addAll(record.callees);
+            staleLocations.addAll(record.locations);
+        });
+        // an unreached method may be reached in this run only via the changed
+        // methods, and then its calls and stores are new to the reused nodes
+        getCalleesOf(changed).forEach(method -> {
+            Record record = unreached.get(method);
+            if (record != null) {
+                staleCallees.addAll(record.callees);
+                staleLocations.addAll(record.locations);
+            }
+        });
+        // invalidate the callees and the loads which depended on the call edges
+        // and the stores of previous run, as current ICFG may not connect them
+        staleCallees.stream()
+                .map(methods::get)
+                .filter(Objects::nonNull)
+                .forEach(callee -> invalid.add(icfg.getEntryOf(callee)));
+        staleLocations.forEach(location -> invalid.addAll(support.getLoadsOf(location)));
+        // invalidate the nodes whose facts transitively depend on the changed nodes
+        Deque<Node> stack = new ArrayDeque<>(invalid);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (Node succ : icfg.getSuccsOf(node)) {
+                if (invalid.add(succ)) {
+                    stack.push(succ);
+                }
+            }
+            for (Node dependent : support.getDependentsOf(node)) {
+                if (invalid.add(dependent)) {
+                    stack.push(dependent);
+                }
+            }
+        }
+        // reuse the facts of remaining nodes
+        int count = 0;
+        for (Map.Entry<Method, List<Pair<Fact, Fact>>> entry : unchanged.entrySet()) {
+            List<Node> nodes = support.getNodesOf(entry.getKey());
+            List<Pair<Fact, Fact>> facts = entry.getValue();
+            for (int i = 0; i < nodes.size(); ++i) {
+                Node node = nodes.get(i);
+                if (facts.get(i) != null && !invalid.contains(node)) {
+                    reused.setInFact(node, facts.get(i).first());
+                    reused.setOutFact(node, facts.get(i).second());
+                    support.onReused(node, facts.get(i).first(), facts.get(i).second());
+                    ++count;
+                }
+            }
+        }
+        logger.info("Reused facts of {}/{} ICFG nodes from {}", count, total, path);
+        return reused;
+    }
+
+    /**
+     * @return the methods which are transitively called by given methods
+     * in the call graph, including themselves.
+     */
+    private Set<Method> getCalleesOf(Set<Method> methods) {
+        Set<Method> callees = new HashSet<>(methods);
+        Deque<Method> stack = new ArrayDeque<>(methods);
+        while (!stack.isEmpty()) {
+            for (Method callee : callGraph.getCalleesOfM(stack.pop())) {
+                if (callees.add(callee)) {
+                    stack.push(callee);
+                }
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * @return the IN and OUT facts of each node of given method decoded from
+     * the record, or null if any fact is not valid for the method.
+     * The nodes which were not reached have null facts.
+     */
+    private List<Pair<Fact, Fact>> decode(Method method, Record record) {
+        List<Pair<Fact, Fact>> facts = new ArrayList<>(record.facts.size());
+        for (String[] encoded : record.facts) {
+            if (encoded == null) {
+                facts.add(null);
+                continue;
+            }
+            Fact in = support.decodeFact(method, encoded[0]);
+            Fact out = support.decodeFact(method, encoded[1]);
+            if (in == null || out == null) {
+                logger.warn("Invalid facts of {} in {}, ignore them",
+                        support.getMethodId(method), path);
+                return null;
+            }
+            facts.add(new Pair<>(in, out));
+        }
+        return facts;
+    }
+
+    private Map<String, Record> read() {
+        Map<String, Record> records = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] header = line.split(SEP, -1);
+                if (header.length != 5) {
+                    throw new IOException("Malformed header: " + line);
+                }
+                List<String[]> facts = null;
+                if (!header[4].equals(ABSENT)) {
+                    int nodes = Integer.parseInt(header[4]);
+                    facts = new ArrayList<>(nodes);
+                    for (int i = 0; i < nodes; ++i) {
+                        String factLine = reader.readLine();
+                        if (factLine == null) {
+                            throw new IOException("Missing facts of " + header[0]);
+                        }
+                        facts.add(factLine.equals(ABSENT) ? null : splitFacts(factLine));
+                    }
+                }
+                records.put(header[0], new Record(header[1],
+                        splitList(header[2]), splitList(header[3]), facts));
+            }
+        } catch (IOException | NumberFormatException e) {
+            // broken cache, just solve from scratch
+            logger.warn("Failed to read {}, ignore it: {}", path, e.getMessage());
+            return Map.of();
+        }
+        return records;
+    }
+
+    private static String[] splitFacts(String factLine) throws IOException {
+        String[] inOut = factLine.split(SEP, -1);
+        if (inOut.length != 2) {
+            throw new IOException("Malformed facts: " + factLine);
+        }
+        return inOut;
+    }
+
+    private static List<String> splitList(String s) {
+        return s.isEmpty() ? List.of() : List.of(s.split(LIST_SEP));
+    }
+
+    private static String joinList(Stream<String> elems) {
+        return elems.sorted().collect(Collectors.joining(LIST_SEP));
+    }
+
+    /**
+     * Stores the results of this run for the next run. The methods and
+     * the nodes which have no facts, i.e., the ones not reached by
+     * {@link LazyInterSolver}, are recorded as absent, so that the nodes
+     * of the unreached methods are never built.
+     */
+    void store(DataflowResult<Node, Fact> result) {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            getFingerprints().forEach((method, fingerprint) -> {
+                String callees = joinList(callGraph.getCalleesOfM(method)
+                        .stream()
+                        .map(support::getMethodId)
+                        .distinct());
+                String locations = joinList(
+                        support.getStoredLocationsOf(method).stream().distinct());
+                String header = support.getMethodId(method) + SEP + fingerprint + SEP +
+                        callees + SEP + locations + SEP;
+                if (!support.isReached(method, result)) {
+                    out.println(header + ABSENT);
+                    return;
+                }
+                List<Node> nodes = support.getNodesOf(method);
+                out.println(header + nodes.size());
+                for (Node node : nodes) {
+                    Fact in = result.getInFact(node);
+                    out.println(in == null ? ABSENT : support.encodeFact(in) + SEP +
+                            support.encodeFact(result.getOutFact(node)));
+                }
+            });
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write " + path, e);
+        }
+    }
+
+    /** Persisted fingerprint, callees, stored locations and facts of a method. */
+    private static class Record {
+
+        private final String fingerprint;
+
+        /** IDs of the callees of the method. */
+        private final List<String> callees;
+
+        /** IDs of the locations stored by the method. */
+        private final List<String> locations;
+
+        /**
+         * IN and OUT facts of each node, or null if the method was not reached.
+         * The facts of the nodes which were not reached are null.
+         */
+        private final List<String[]> facts;
+
+        private Record(String fingerprint, List<String> callees,
+                       List<String> locations, List<String[]> facts) {
+            this.fingerprint = fingerprint;
+            this.callees = callees;
+            this.locations = locations;
+            this.facts = facts;
+        }
+    }
+}
@@ -23,112 +23,235 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
-import pascal.taie.analysis.graph.icfg.ICFGEdge;
-
-import java.util.*;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * The solver works on the {@link CompactICFG} frozen from the given ICFG,
+ * and keeps the facts in arrays indexed by node IDs, so that iterating
+ * the nodes and edges does not allocate any objects. As the snapshot is
+ * indexed by statements, the solver works on ICFG of JMethod and Stmt.
+ *
+ * @param <Fact> type of data-flow facts
  */
-class InterSolver<Method, Node, Fact> {
+class InterSolver<Fact> extends AbstractInterSolver<JMethod, Stmt, Fact> {
+
+    private CompactICFG graph;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
 
-    private final InterDataflowAnalysis<Node, Fact> analysis;
+    private WorkList workList;
 
-    private final ICFG<Method, Node> icfg;
+    /**
+     * Version stamps of out facts, a stamp is bumped whenever
+     * the out fact of the node is changed by the transfer function.
+     */
+    private int[] outFactVersions;
 
-    private DataflowResult<Node, Fact> result;
+    /** Whether the transfer function of each in-edge is identity. */
+    private boolean[] identityEdges;
 
-    private Queue<Node> workList;
+    /** Memoized results of edge transfer functions, indexed by edge positions. */
+    private Object[] edgeFacts;
 
-    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-            ICFG<Method, Node> icfg
+    /** Versions of source out facts which the memoized edge facts are computed from. */
+    private int[] edgeFactVersions;
+
+    InterSolver(InterDataflowAnalysis<Stmt, Fact> analysis,
+            ICFG<JMethod, Stmt> icfg
     ) {
-        this.analysis = analysis;
-        this.icfg = icfg;
+        super(analysis, icfg);
     }
 
-    DataflowResult<Node, Fact> solve() {
-        result = new DataflowResult<>();
-        initialize();
+    @Override
+    DataflowResult<Stmt, Fact> solve(DataflowResult<Stmt, Fact> reused) {
+        graph = CompactICFG.freeze(icfg);
+        int nodes = graph.getIdSpace();
+        int edges = graph.getNumberOfInEdges();
+        inFacts = new Object[nodes];
+        outFacts = new Object[nodes];
+        workList = new WorkList(nodes);
+        outFactVersions = new int[nodes];
+        identityEdges = new boolean[edges];
+        edgeFacts = new Object[edges];
+        edgeFactVersions = new int[edges];
+        for (int i = 0; i < nodes; ++i) {
+            Stmt node = getNode(i);
+            if (node != null) {
+                for (int pos = graph.getInEdgesStart(i); pos < graph.getInEdgesEnd(i); ++pos) {
+                    identityEdges[pos] = analysis.isIdentityEdge(graph.getInEdge(pos));
+                    edgeFactVersions[pos] = -1;
+                }
+            }
+        }
+        initialize(reused);
         doSolve();
-        return result;
+        return collectResult();
     }
 
-    /** Initialize the fact and boundary fact of each node. */
-    private void initialize() {
-        for (Node node : icfg.getNodes()) {
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+    /**
+     * Initialize the fact and boundary fact of each node, and add the nodes
+     * whose facts are not reused to the work-list.
+     */
+    private void initialize(DataflowResult<Stmt, Fact> reused) {
+        for (int i = 0; i < graph.getIdSpace(); ++i) {
+            Stmt node = getNode(i);
+            if (node == null) {
+                continue;
+            }
+            Fact in = reused.getInFact(node);
+            Fact out = reused.getOutFact(node);
+            if (in != null && out != null) {
+                inFacts[i] = in;
+                outFacts[i] = out;
+            } else {
+                inFacts[i] = analysis.newInitialFact();
+                outFacts[i] = analysis.newInitialFact();
+                workList.add(i);
+            }
         }
 
         // boundary fact, all params are NAC as it can be anything.
         icfg.entryMethods().forEach(entryMethod -> {
-            Node entryNode = icfg.getEntryOf(entryMethod);
-            result.setOutFact(entryNode, analysis.newBoundaryFact(entryNode));
+            Stmt entryNode = icfg.getEntryOf(entryMethod);
+            if (reused.getOutFact(entryNode) == null) {
+                outFacts[getId(entryNode)] = analysis.newBoundaryFact(entryNode);
+            }
         });
     }
 
     private void doSolve() {
-        workList = new SetQueue<>(icfg.getNodes());
         while (!workList.isEmpty()) {
-            Node node = workList.poll();
-            if (analysis.transferNode(node, calInFact(node), result.getOutFact(node))) {
-                for (Node succ : icfg.getSuccsOf(node)) { // append successors
-                    appendNodeToWL(succ);
+            int node = workList.poll();
+            if (analysis.transferNode(getNode(node), calInFact(node), outFact(node))) {
+                ++outFactVersions[node];
+                for (int pos = graph.getSuccsStart(node);
+                     pos < graph.getSuccsEnd(node); ++pos) { // append successors
+                    workList.add(graph.getSucc(pos));
                 }
             }
         }
     }
 
     /** @return the recalculated in fact. */
-    private Fact calInFact(Node node) {
-        Fact inFact = result.getInFact(node);
-        for (ICFGEdge<Node> inEdge : icfg.getInEdgesOf(node)) {
-            Fact sourceFact = result.getOutFact(inEdge.getSource());
-            analysis.meetInto(analysis.transferEdge(inEdge, sourceFact), inFact);
+    private Fact calInFact(int node) {
+        Fact inFact = inFact(node);
+        for (int pos = graph.getInEdgesStart(node); pos < graph.getInEdgesEnd(node); ++pos) {
+            Fact sourceFact = outFact(graph.getInEdgeSource(pos));
+            if (identityEdges[pos]) {  // meet directly, no copy
+                analysis.meetInto(sourceFact, inFact);
+            } else {
+                analysis.meetInto(transferEdge(pos, sourceFact), inFact);
+            }
         }
         return inFact;
     }
 
-    /** Append given node to workList, ignoring the existing nodes. */
-    public void appendNodeToWL(Node node) {
-        workList.add(node);
+    /**
+     * @return the result of edge transfer function, which is re-computed
+     * only if the out fact of the source node changed since last transfer.
+     */
+    @SuppressWarnings("unchecked")
+    private Fact transferEdge(int pos, Fact sourceFact) {
+        int sourceVersion = outFactVersions[graph.getInEdgeSource(pos)];
+        if (edgeFactVersions[pos] != sourceVersion) {
+            edgeFactVersions[pos] = sourceVersion;
+            edgeFacts[pos] = analysis.transferEdge(graph.getInEdge(pos), sourceFact);
+        }
+        return (Fact) edgeFacts[pos];
     }
 
-    /** @return the out fact of given node. */
-    public Fact getOutFactOf(Node node) {
-        return result.getOutFact(node);
+    /** @return the facts of all nodes in the order of ICFG nodes. */
+    private DataflowResult<Stmt, Fact> collectResult() {
+        DataflowResult<Stmt, Fact> result = new DataflowResult<>();
+        for (int i = 0; i < graph.getIdSpace(); ++i) {
+            Stmt node = getNode(i);
+            if (node != null) {
+                result.setInFact(node, inFact(i));
+                result.setOutFact(node, outFact(i));
+            }
+        }
+        return result;
     }
 
-    /** @return the in fact of given node. */
-    public Fact getInFactOf(Node node) {
-        return result.getInFact(node);
+    private Stmt getNode(int id) {
+        return graph.getNode(id);
     }
 
-    /** Queue without duplicate element. */
-    private class SetQueue<E> extends LinkedList<E> {
-        Set<E> elemsInQueue;
-        SetQueue(Collection<? extends E> c) {
-            super(c);
-            elemsInQueue = new HashSet<>(c);
+    private int getId(Stmt node) {
+        return graph.getId(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact inFact(int node) {
+        return (Fact) inFacts[node];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact outFact(int node) {
+        return (Fact) outFacts[node];
+    }
+
+    @Override
+    public void appendNodeToWL(Stmt node) {
+        workList.add(getId(node));
+    }
+
+    @Override
+    public Fact getOutFactOf(Stmt node) {
+        return outFact(getId(node));
+    }
+
+    @Override
+    public Fact getInFactOf(Stmt node) {
+        return inFact(getId(node));
+    }
+
+    /**
+     * FIFO queue of node IDs without duplicate element. As each node is
+     * in the queue at most once, a ring buffer of the number of nodes suffices.
+     */
+    private static class WorkList {
+
+        private final int[] elems;
+
+        private final boolean[] inQueue;
+
+        private int head = 0;
+
+        private int size = 0;
+
+        WorkList(int capacity) {
+            elems = new int[Math.max(capacity, 1)];
+            inQueue = new boolean[capacity];
         }
 
-        @Override
-        public E poll() {
-            E elem = super.poll();
-            elemsInQueue.remove(elem);
-            return elem;
+        boolean isEmpty() {
+            return size == 0;
         }
 
-        @Override
-        public boolean add(E e) {
-            if (elemsInQueue.contains(e)) {
-                return false;
+        void add(int node) {
+            if (!inQueue[node]) {
+                inQueue[node] = true;
+                elems[(head + size) % elems.length] = node;
+                ++size;
             }
-            return super.add(e);
+        }
+
+        int poll() {
+            int node = elems[head];
+            head = (head + 1) % elems.length;
+            --size;
+            inQueue[node] = false;
+            return node;
         }
     }
 }
@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Solver for inter-procedural data-flow analysis on {@link LazyICFG}.
+ * <p>
+ * Different from {@link InterSolver}, which initializes all nodes of the
+ * frozen ICFG, this solver extends the lattice of facts with an "unreached"
+ * bottom, i.e., a node has no facts until a path from the entries reaches it.
+ * A node is reached when it is an entry of the entry methods, or one of its
+ * predecessors is reached, and reaching a node is a change of its fact, thus
+ * the successors of a node are reached when it is visited for the first time.
+ * Afterwards, the successors are only visited when its out fact changes.
+ * <p>
+ * As the ICFG is expanded when the in/out edges of a node are queried, a
+ * callee is expanded only when the fact of a call site to it is reached,
+ * and the methods whose nodes are never reached are never expanded and
+ * have no facts in the result.
+ * <p>
+ * The facts of unreached nodes do not flow into the reached nodes along
+ * the ICFG edges. However, the result at the reached nodes may differ from
+ * that of {@link InterSolver} when the analysis relates nodes beyond the
+ * edges, e.g., the alias-aware loads of {@link InterConstantPropagation}
+ * meet the values of the aliased stores. {@link InterSolver} transfers
+ * every node of the ICFG, including the stores in code which is never
+ * reached from the entries, thus its loads see the values of such stores,
+ * while this solver never transfers them, and its loads do not see them,
+ * e.g., a load whose only store is unreached is UNDEF instead of
+ * the stored constant.
+ */
+class LazyInterSolver<Method, Node, Fact> extends AbstractInterSolver<Method, Node, Fact> {
+
+    /** Nodes which have been visited by the solver. */
+    private final Set<Node> visitedNodes = new HashSet<>();
+
+    /** Reached nodes whose facts are reused, they are not transferred again. */
+    private final Set<Node> reusedNodes = new HashSet<>();
+
+    private DataflowResult<Node, Fact> result;
+
+    private DataflowResult<Node, Fact> reused;
+
+    private Queue<Node> workList;
+
+    LazyInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                    ICFG<Method, Node> icfg) {
+        super(analysis, icfg);
+    }
+
+    @Override
+    DataflowResult<Node, Fact> solve(DataflowResult<Node, Fact> reused) {
+        this.reused = reused;
+        result = new DataflowResult<>();
+        workList = new SetQueue<>();
+        // boundary fact, all params are NAC as it can be anything.
+        icfg.entryMethods().forEach(entryMethod -> {
+            Node entryNode = icfg.getEntryOf(entryMethod);
+            reach(entryNode);
+            if (!reusedNodes.contains(entryNode)) {
+                result.setOutFact(entryNode, analysis.newBoundaryFact(entryNode));
+            }
+        });
+        doSolve();
+        return result;
+    }
+
+    /**
+     * Initializes the facts of given node and adds it to the work-list,
+     * if it has not been reached.
+     */
+    private void reach(Node node) {
+        if (result.getInFact(node) != null) {
+            return;
+        }
+        Fact in = reused.getInFact(node);
+        Fact out = reused.getOutFact(node);
+        if (in != null && out != null) {
+            result.setInFact(node, in);
+            result.setOutFact(node, out);
+            reusedNodes.add(node);
+        } else {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        workList.add(node);
+    }
+
+    private void doSolve() {
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            boolean changed = !reusedNodes.contains(node) &&
+                    analysis.transferNode(node, calInFact(node), result.getOutFact(node));
+            // the first visit changes the successors from unreached to reached
+            if (visitedNodes.add(node) || changed) {
+                // querying the edges may expand the methods of successors
+                for (Node succ : icfg.getSuccsOf(node)) {
+                    reach(succ);
+                    workList.add(succ);
+                }
+            }
+        }
+    }
+
+    /** @return the recalculated in fact. */
+    private Fact calInFact(Node node) {
+        Fact inFact = result.getInFact(node);
+        for (ICFGEdge<Node> inEdge : icfg.getInEdgesOf(node)) {
+            Fact sourceFact = result.getOutFact(inEdge.getSource());
+            if (sourceFact == null) { // source has not been reached
+                continue;
+            }
+            if (analysis.isIdentityEdge(inEdge)) {
+                analysis.meetInto(sourceFact, inFact);
+            } else {
+                analysis.meetInto(analysis.transferEdge(inEdge, sourceFact), inFact);
+            }
+        }
+        return inFact;
+    }
+
+    /** Appends given node to the work-list if it has been reached. */
+    @Override
+    public void appendNodeToWL(Node node) {
+        if (result.getInFact(node) != null) {
+            workList.add(node);
+        }
+    }
+
+    /** @return the out fact of given node, or initial fact if it has not been reached. */
+    @Override
+    public Fact getOutFactOf(Node node) {
+        Fact out = result.getOutFact(node);
+        return out != null ? out : analysis.newInitialFact();
+    }
+
+    /** @return the in fact of given node, or initial fact if it has not been reached. */
+    @Override
+    public Fact getInFactOf(Node node) {
+        Fact in = result.getInFact(node);
+        return in != null ? in : analysis.newInitialFact();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import java.util.Set;
+
+/**
+ * Index of the instance LoadFields by the locations (obj, field) they may read.
+ * The index is built from the result of pointer analysis, i.e., the LoadFields
+ * of the base variables and their points-to sets, when it is first queried.
+ * <p>
+ * Pruning the readers by method-level ref summaries cannot shrink the result,
+ * as a method which has a LoadField of a location always reads the location
+ * by itself, thus the index is not combined with such summaries.
+ */
+class LoadFieldIndex {
+
+    private final PointerAnalysisResult pta;
+
+    /** LoadFields which may read each location, null before the index is built. */
+    private MultiMap<Pair<Obj, JField>, LoadField> readers;
+
+    LoadFieldIndex(PointerAnalysisResult pta) {
+        this.pta = pta;
+    }
+
+    /** @return the LoadFields which may read obj.field. */
+    Set<LoadField> getLoadFieldsReading(Obj obj, JField field) {
+        if (readers == null) {
+            build();
+        }
+        return readers.get(new Pair<>(obj, field));
+    }
+
+    private void build() {
+        readers = Maps.newMultiMap();
+        for (Var base : pta.getVars()) {
+            for (LoadField loadField : base.getLoadFields()) {
+                JField field = loadField.getFieldRef().resolveNullable();
+                if (field != null) {
+                    for (Obj obj : pta.getPointsToSet(base)) {
+                        readers.put(new Pair<>(obj, field), loadField);
+                    }
+                }
+            }
+        }
+    }
+}
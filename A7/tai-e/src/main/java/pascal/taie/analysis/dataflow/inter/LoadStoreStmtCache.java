@@ -0,0 +1,253 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/** The class caches the relevant StoreFields, LoadFields, StoreArrays, LoadArrays. */
+class LoadStoreStmtCache {
+    private final PointerAnalysisResult pta;
+    private final Map<Var, Set<Var>> aliasCache;
+    private final Map<InstanceFieldAccess, Set<StoreField>> storeFieldsOfInstanceFieldAccess;
+    private final Map<InstanceFieldAccess, Set<LoadField>> loadFieldsOfInstanceFieldAccess;
+    private final Map<FieldRef, Set<StoreField>> storeFieldsOfStaticFieldAccess;
+    private final Map<FieldRef, Set<LoadField>> loadFieldsOfStaticFieldAccess;
+
+    /** The key of storeArray and loadArray is the base of array access. */
+    private final Map<Var, Set<StoreArray>> storeArraysOfArrayAccess;
+    private final Map<Var, Set<LoadArray>> loadArraysOfArrayAccess;
+
+    LoadStoreStmtCache(PointerAnalysisResult pta) {
+        this.pta = pta;
+        aliasCache = new HashMap<>();
+        storeFieldsOfInstanceFieldAccess = new HashMap<>();
+        loadFieldsOfInstanceFieldAccess = new HashMap<>();
+        storeFieldsOfStaticFieldAccess = new HashMap<>();
+        loadFieldsOfStaticFieldAccess = new HashMap<>();
+        storeArraysOfArrayAccess = new HashMap<>();
+        loadArraysOfArrayAccess = new HashMap<>();
+    }
+
+    /** @return all aliases of given var including itself from the alias cache. */
+    private Set<Var> getAliasesOf(Var var) {
+        return getAndCache(aliasCache, var, this::findAliasesOf);
+    }
+
+    /** @return all aliases of given base including itself from the pointer analysis result. */
+    private Set<Var> findAliasesOf(Var base) {
+        HashSet<Var> aliases = new HashSet<>();
+        Set<Obj> ptsOfBase = pta.getPointsToSet(base);
+
+        for (Var var : pta.getVars()) {
+            if (!Collections.disjoint(ptsOfBase, pta.getPointsToSet(var))) {
+                aliases.add(var);
+            }
+        }
+
+        return aliases;
+    }
+
+    /**
+     * get from the cache, if the value is not existing, find and cache it.
+     *
+     * @param key the key
+     * @param finder the function to find the value
+     * @param <K> The type of key
+     * @param <V> The type of the set of the value.
+     * @return the set of the value
+     */
+    private <K, V> Set<V> getAndCache(Map<K, Set<V>> cache, K key, Function<K, Set<V>> finder) {
+        Set<V> res = cache.get(key);
+        if (res == null || res.isEmpty()) {
+            res = finder.apply(key);
+            cache.put(key, res);
+        }
+        return res;
+    }
+
+    /* ---------------------- Instance Field Access ---------------------- */
+
+    /** @return the related load fields of given key(x.f): a = x.f. */
+    Set<LoadField> getLoadFields(InstanceFieldAccess key) {
+        return getAndCache(loadFieldsOfInstanceFieldAccess, key, this::findInstanceLoadFields);
+    }
+
+    /**
+     * @param instanceFieldAccess x.f
+     * @return all instance load fields of given x.f (including the alias)
+     */
+    private Set<LoadField> findInstanceLoadFields(InstanceFieldAccess instanceFieldAccess) {
+        return findInstanceLoadOrStoreFields(instanceFieldAccess, Var::getLoadFields);
+    }
+
+    /** @return the related store fields of given key(x.f): x.f = b. */
+    Set<StoreField> getStoreFields(InstanceFieldAccess key) {
+        return getAndCache(storeFieldsOfInstanceFieldAccess, key,
+                this::findInstanceStoreFields);
+    }
+
+    /**
+     * @param instanceFieldAccess x.f
+     * @return all instance store fields of given x.f (including the alias)
+     */
+    private Set<StoreField> findInstanceStoreFields(InstanceFieldAccess instanceFieldAccess) {
+        return findInstanceLoadOrStoreFields(instanceFieldAccess, Var::getStoreFields);
+    }
+
+    /**
+     * @param instanceFieldAccess the instance field access a.f
+     * @param getLoadOrStoreFieldsOf Var::getLoadFields or Var::getStoreFields
+     * @param <T> LoadField or StoreField
+     * @return all LoadFields or StoreFields of all aliases
+     */
+    private <T extends FieldStmt> Set<T> findInstanceLoadOrStoreFields(
+            InstanceFieldAccess instanceFieldAccess,
+            Function<Var, List<T>> getLoadOrStoreFieldsOf
+    ) {
+        Var base = instanceFieldAccess.getBase();
+        FieldRef fieldRef = instanceFieldAccess.getFieldRef();
+        Set<T> loadOrStoreFields = new HashSet<>();
+
+        for (Var var : getAliasesOf(base)) {
+            for (T loadOrStoreField : getLoadOrStoreFieldsOf.apply(var)) {
+                if (isSameField(loadOrStoreField.getFieldRef(), fieldRef)) {
+                    loadOrStoreFields.add(loadOrStoreField);
+                }
+            }
+        }
+        return loadOrStoreFields;
+    }
+
+    /**
+     * The instance fields are matched by the resolved fields, as in
+     * {@link LoadFieldIndex}, thus x.f and y.f match even if f is
+     * referenced via different classes. The unresolved fields are
+     * matched by the references.
+     */
+    private static boolean isSameField(FieldRef fieldRef1, FieldRef fieldRef2) {
+        if (fieldRef1.equals(fieldRef2)) {
+            return true;
+        }
+        JField field1 = fieldRef1.resolveNullable();
+        return field1 != null && field1.equals(fieldRef2.resolveNullable());
+    }
+
+    /* ---------------------- Static Field Access ---------------------- */
+
+    /** @return the related load fields of given key(T.f): a = T.f. */
+    Set<LoadField> getLoadFields(StaticFieldAccess key) {
+        return getStaticFields(loadFieldsOfStaticFieldAccess, key.getFieldRef());
+    }
+
+    /** @return the related store fields of given key(T.f): T.f = b. */
+    Set<StoreField> getStoreFields(StaticFieldAccess key) {
+        return getStaticFields(storeFieldsOfStaticFieldAccess, key.getFieldRef());
+    }
+
+    /** Record the given static loadField. */
+    boolean put(StaticFieldAccess staticFieldAccess, LoadField loadField) {
+        return put(loadFieldsOfStaticFieldAccess, staticFieldAccess.getFieldRef(), loadField);
+    }
+
+    /** Record the given static storeField. */
+    boolean put(StaticFieldAccess staticFieldAccess, StoreField storeField) {
+        return put(storeFieldsOfStaticFieldAccess, staticFieldAccess.getFieldRef(), storeField);
+    }
+
+    /**
+     * add the value in the set corresponding to the key, if the set is non-existing,
+     * creates a new set.
+     */
+    private <K, V> boolean put(Map<K, Set<V>> map, K key, V value) {
+        Set<V> set = map.get(key);
+        if (set == null) {
+            map.put(key, new HashSet<>(Set.of(value)));
+            return true;
+        } else {
+            return set.add(value);
+        }
+    }
+
+    private <K, V> Set<V> getStaticFields(Map<K, Set<V>> map, K key) {
+        return map.getOrDefault(key, new HashSet<>());
+    }
+
+    /* ---------------------- Array Access ---------------------- */
+
+    Set<StoreArray> getStoreArrays(ArrayAccess arrayAccess) {
+        return getAndCache(storeArraysOfArrayAccess, arrayAccess.getBase(),
+                this::findStoreArrays);
+    }
+
+    Set<LoadArray> getLoadArrays(ArrayAccess arrayAccess) {
+        return getAndCache(loadArraysOfArrayAccess, arrayAccess.getBase(),
+                this::findLoadArrays);
+    }
+
+    /** @return all storeArrays of given arrayAccess (a[i]): a[i] = b */
+    private Set<StoreArray> findStoreArrays(Var base) {
+        return findLoadOrStoreArrays(base, Var::getStoreArrays);
+    }
+
+    /** @return all loadArrays of given arrayAccess (a[i]): b = a[i] */
+    private Set<LoadArray> findLoadArrays(Var base) {
+        return findLoadOrStoreArrays(base, Var::getLoadArrays);
+    }
+
+    /**
+     * @param base The base var of arrayAccess, e.g. the base of a[i] is a
+     * @param aliasStmtsGetter getLoadArrays of getStoreArrays
+     * @param <T> LoadArray or StoreArray
+     * @return all loadArrays or storeArrays of all aliases
+     */
+    private <T extends Stmt> Set<T> findLoadOrStoreArrays(Var base,
+            Function<Var, List<T>> aliasStmtsGetter
+    ) {
+        Set<T> loadOrStoreArrays = new HashSet<>();
+        for (Var alias : getAliasesOf(base)) {
+            loadOrStoreArrays.addAll(aliasStmtsGetter.apply(alias));
+        }
+        return loadOrStoreArrays;
+    }
+}
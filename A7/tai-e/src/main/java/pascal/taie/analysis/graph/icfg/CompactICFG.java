@@ -0,0 +1,295 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A frozen, int-indexed snapshot of an {@link ICFG}.
+ * <p>
+ * The node IDs are derived from the statement indexes: each method reachable
+ * from the entry methods is given an offset, and the ID of a node is the
+ * offset of its method plus its index. The entry and exit of a CFG are
+ * indexed right after the statements of the IR by {@code CFGBuilder},
+ * thus the IDs of a method occupy {@code |stmts| + 2} consecutive slots.
+ * <p>
+ * The in-edges and successors of the nodes are stored in compressed sparse
+ * row (CSR) form, i.e., the in-edges of node {@code i} occupy the positions
+ * from {@link #getInEdgesStart(int)} to {@link #getInEdgesEnd(int)}
+ * (exclusive) of flat arrays. For each in-edge, the snapshot stores the ID
+ * of its source node, and the edge itself at the same position, so that the
+ * clients which need the call/return data of the edge can obtain it by
+ * {@link #getInEdge(int)}.
+ * Thus, the clients can iterate the snapshot without allocating any objects.
+ * <p>
+ * The snapshot is an index over the ICFG, not a replacement of it. It costs
+ * an int source ID and an edge reference per in-edge (8 bytes with
+ * compressed oops), an int ID per successor, and a node reference and two
+ * int offsets per ID slot. The edge objects and the containing methods used
+ * by {@link #getId(Stmt)} still come from the ICFG, which is retained in one
+ * place: {@link World} keeps it as the result of {@link ICFGBuilder}, and
+ * the snapshot, also kept by {@link World}, refers to the same instance.
+ * <p>
+ * The snapshot does not reflect the changes of the ICFG after freezing,
+ * and the snapshot of an ICFG is built once and shared by all solvers.
+ */
+public class CompactICFG {
+
+    /** Key of the snapshot stored in {@link World}. */
+    private static final String RESULT_KEY = "compact-icfg";
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    /** Offsets of the IDs of each method. */
+    private final Map<JMethod, Integer> offsets = new HashMap<>();
+
+    /** Nodes indexed by IDs, null if the ID is not a node of the ICFG. */
+    private final Stmt[] nodes;
+
+    private final int numberOfNodes;
+
+    private final int[] inEdgeOffsets;
+
+    private final int[] inEdgeSources;
+
+    private final ICFGEdge<Stmt>[] inEdges;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private CompactICFG(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        int size = 0;
+        for (JMethod method : collectMethods(icfg)) {
+            offsets.put(method, size);
+            size += method.getIR().getStmts().size() + 2;
+        }
+        nodes = new Stmt[size];
+        int n = 0;
+        int numberOfInEdges = 0;
+        int numberOfSuccs = 0;
+        for (JMethod method : offsets.keySet()) {
+            int offset = offsets.get(method);
+            for (Stmt stmt : method.getIR()) {
+                n += addNode(offset, stmt);
+            }
+            n += addNode(offset, icfg.getEntryOf(method));
+            n += addNode(offset, icfg.getExitOf(method));
+        }
+        numberOfNodes = n;
+        for (Stmt node : nodes) {
+            if (node != null) {
+                numberOfInEdges += icfg.getInDegreeOf(node);
+                numberOfSuccs += icfg.getSuccsOf(node).size();
+            }
+        }
+        inEdgeOffsets = new int[size + 1];
+        inEdgeSources = new int[numberOfInEdges];
+        inEdges = newEdgeArray(numberOfInEdges);
+        succOffsets = new int[size + 1];
+        succs = new int[numberOfSuccs];
+        int inEdgePos = 0;
+        int succPos = 0;
+        for (int i = 0; i < size; ++i) {
+            Stmt node = nodes[i];
+            inEdgeOffsets[i] = inEdgePos;
+            succOffsets[i] = succPos;
+            if (node != null) {
+                for (ICFGEdge<Stmt> inEdge : icfg.getInEdgesOf(node)) {
+                    inEdgeSources[inEdgePos] = getId(inEdge.getSource());
+                    inEdges[inEdgePos] = inEdge;
+                    ++inEdgePos;
+                }
+                for (Stmt succ : icfg.getSuccsOf(node)) {
+                    succs[succPos++] = getId(succ);
+                }
+            }
+        }
+        inEdgeOffsets[size] = inEdgePos;
+        succOffsets[size] = succPos;
+    }
+
+    /**
+     * @return an array of edges of given length. Java cannot create
+     * an array of generic type directly, and the array never escapes
+     * this snapshot, thus the unchecked cast is safe.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ICFGEdge<Stmt>[] newEdgeArray(int length) {
+        return (ICFGEdge<Stmt>[]) new ICFGEdge[length];
+    }
+
+    /**
+     * @return the frozen snapshot of given ICFG. The snapshot is stored in
+     * {@link World} and reused by later calls on the same ICFG.
+     */
+    public static CompactICFG freeze(ICFG<JMethod, Stmt> icfg) {
+        CompactICFG snapshot = World.get().getResult(RESULT_KEY);
+        if (snapshot == null || snapshot.icfg != icfg) {
+            snapshot = new CompactICFG(icfg);
+            World.get().storeResult(RESULT_KEY, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the methods reachable from the entry methods of the ICFG,
+     * which are collected via the call sites in IR instead of the nodes,
+     * so that no node-indexed map is needed.
+     */
+    private static List<JMethod> collectMethods(ICFG<JMethod, Stmt> icfg) {
+        List<JMethod> methods = new ArrayList<>();
+        Set<JMethod> visited = new HashSet<>();
+        Deque<JMethod> queue = new ArrayDeque<>();
+        icfg.entryMethods().forEach(method -> {
+            if (visited.add(method)) {
+                queue.add(method);
+            }
+        });
+        while (!queue.isEmpty()) {
+            JMethod method = queue.poll();
+            methods.add(method);
+            for (Stmt stmt : method.getIR()) {
+                if (icfg.isCallSite(stmt)) {
+                    for (JMethod callee : icfg.getCalleesOf(stmt)) {
+                        if (visited.add(callee)) {
+                            queue.add(callee);
+                        }
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    /** @return 1 if the stmt is a node of the ICFG and is added, otherwise 0. */
+    private int addNode(int offset, Stmt stmt) {
+        if (icfg.hasNode(stmt)) {
+            nodes[offset + stmt.getIndex()] = stmt;
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the ICFG which this snapshot is frozen from.
+     */
+    public ICFG<JMethod, Stmt> getICFG() {
+        return icfg;
+    }
+
+    /**
+     * @return the size of the ID space, i.e., all IDs are less than it.
+     * Some IDs in the space may not be nodes, see {@link #getNode(int)}.
+     */
+    public int getIdSpace() {
+        return nodes.length;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int getNumberOfInEdges() {
+        return inEdgeSources.length;
+    }
+
+    /**
+     * @return the node of given ID, or null if the ID is not a node,
+     * e.g., the statement is absent in the CFG of its method.
+     */
+    public Stmt getNode(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @return the ID of given node.
+     * @throws NullPointerException if the method of the node is absent
+     *                              in this snapshot.
+     */
+    public int getId(Stmt node) {
+        return offsets.get(icfg.getContainingMethodOf(node)) + node.getIndex();
+    }
+
+    /**
+     * @return the start position (inclusive) of the in-edges of given node.
+     */
+    public int getInEdgesStart(int node) {
+        return inEdgeOffsets[node];
+    }
+
+    /**
+     * @return the end position (exclusive) of the in-edges of given node.
+     */
+    public int getInEdgesEnd(int node) {
+        return inEdgeOffsets[node + 1];
+    }
+
+    /**
+     * @return the ID of source node of the in-edge at given position.
+     */
+    public int getInEdgeSource(int pos) {
+        return inEdgeSources[pos];
+    }
+
+    /**
+     * @return the in-edge at given position, whose source node is
+     * {@link #getInEdgeSource(int)} of the same position.
+     */
+    public ICFGEdge<Stmt> getInEdge(int pos) {
+        return inEdges[pos];
+    }
+
+    /**
+     * @return the start position (inclusive) of the successors of given node.
+     */
+    public int getSuccsStart(int node) {
+        return succOffsets[node];
+    }
+
+    /**
+     * @return the end position (exclusive) of the successors of given node.
+     */
+    public int getSuccsEnd(int node) {
+        return succOffsets[node + 1];
+    }
+
+    /**
+     * @return the ID of the successor at given position.
+     */
+    public int getSucc(int pos) {
+        return succs[pos];
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.World;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG which is constructed lazily.
+ * <p>
+ * Different from the ICFG built by {@link ICFGBuilder}, which requires
+ * the CFGs of all methods before it is built, this ICFG builds the CFG,
+ * the intra-procedural edges and the call/return edges of a method only
+ * when the method is expanded. A method is expanded when the in/out edges
+ * of any of its nodes are first queried, e.g., when the solver first
+ * reaches its entry via a call edge.
+ * The CFGs of the callees are built (but not expanded) to connect
+ * the call edges and return edges.
+ * <p>
+ * The call edges to a method are added when its callers are expanded.
+ * For the clients which explore the ICFG backward, e.g., demand-driven
+ * analyses, the ICFG can be created to also expand the callers of
+ * a method when the in edges of its entry are queried.
+ * <p>
+ * The CFGs are built with the options of analyses "throw" and "cfg" given
+ * in current run, i.e., the same options as the ones used by the CFGs of
+ * {@link ICFGBuilder}, so that both ICFGs have the same exceptional edges.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private final ThrowAnalysis throwAnalysis;
+
+    private final CFGBuilder cfgBuilder;
+
+    /** Whether {@link #cfgBuilder} needs the result of {@link #throwAnalysis}. */
+    private final boolean needsThrowResult;
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    /** The CFGs containing the nodes, only covers the CFGs which have been built. */
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = new LinkedHashMap<>();
+
+    private final Map<JMethod, CFG<Stmt>> cfgs = new HashMap<>();
+
+    private final Set<JMethod> expandedMethods = new HashSet<>();
+
+    /** Whether to expand the callers when the in edges of an entry are queried. */
+    private final boolean expandsCallers;
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        this(callGraph, false);
+    }
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph, boolean expandsCallers) {
+        super(callGraph);
+        this.expandsCallers = expandsCallers;
+        List<AnalysisConfig> configs = getConfigs();
+        throwAnalysis = new ThrowAnalysis(getConfig(configs, ThrowAnalysis.ID));
+        AnalysisConfig cfgConfig = getConfig(configs, CFGBuilder.ID);
+        cfgBuilder = new CFGBuilder(cfgConfig);
+        needsThrowResult = !"none".equals(cfgConfig.getOptions().getString("exception"));
+    }
+
+    /**
+     * @return the analysis configs whose default options are overwritten
+     * by the options given in current run.
+     */
+    private static List<AnalysisConfig> getConfigs() {
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        new ConfigManager(configs).overwriteOptions(
+                PlanConfig.readConfigs(World.get().getOptions()));
+        return configs;
+    }
+
+    private static AnalysisConfig getConfig(List<AnalysisConfig> configs, String id) {
+        return configs.stream()
+                .filter(config -> config.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * @return the CFG of given method, which is built and stored in the IR
+     * if it has not been built by {@link CFGBuilder}.
+     */
+    private CFG<Stmt> getCFGOf(JMethod method) {
+        CFG<Stmt> cfg = cfgs.get(method);
+        if (cfg == null) {
+            IR ir = method.getIR();
+            cfg = ir.getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                if (needsThrowResult && ir.getResult(ThrowAnalysis.ID) == null) {
+                    ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+                }
+                cfg = cfgBuilder.analyze(ir);
+                ir.storeResult(CFGBuilder.ID, cfg);
+            }
+            cfgs.put(method, cfg);
+            for (Stmt node : cfg) {
+                stmtToCFG.put(node, cfg);
+            }
+        }
+        return cfg;
+    }
+
+    /**
+     * Builds the intra-procedural edges of given method, the call edges to
+     * its callees and the return edges from its callees, if the method has
+     * not been expanded.
+     */
+    private void expand(JMethod method) {
+        if (!expandedMethods.add(method)) {
+            return;
+        }
+        CFG<Stmt> cfg = getCFGOf(method);
+        for (Stmt node : cfg) {
+            cfg.getOutEdgesOf(node).forEach(edge -> {
+                ICFGEdge<Stmt> local = isCallSite(node) ?
+                        new CallToReturnEdge<>(edge) :
+                        new NormalEdge<>(edge);
+                addEdge(local);
+            });
+            if (isCallSite(node)) {
+                getCalleesOf(node).forEach(callee -> connect(node, callee));
+            }
+        }
+    }
+
+    /** Adds the call edge and return edges between given call site and callee. */
+    private void connect(Stmt callSite, JMethod callee) {
+        CFG<Stmt> calleeCFG = getCFGOf(callee);
+        addEdge(new CallEdge<>(callSite, calleeCFG.getEntry(), callee));
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(calleeCFG.getExit()).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN &&
+                    ((Return) edge.getSource()).getValue() != null) {
+                retVars.add(((Return) edge.getSource()).getValue());
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        });
+        getReturnSitesOf(callSite).forEach(retSite -> addEdge(new ReturnEdge<>(
+                calleeCFG.getExit(), retSite, callSite, retVars, exceptions)));
+    }
+
+    private void addEdge(ICFGEdge<Stmt> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    /** Expands the method containing given node if it is not expanded. */
+    private void expandContainerOf(Stmt node) {
+        CFG<Stmt> cfg = stmtToCFG.get(node);
+        if (cfg != null) {
+            expand(cfg.getMethod());
+        }
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt node) {
+        expandContainerOf(node);
+        if (expandsCallers) {
+            CFG<Stmt> cfg = stmtToCFG.get(node);
+            if (cfg != null && cfg.getEntry().equals(node)) {
+                List<Stmt> callSites = List.copyOf(getCallersOf(cfg.getMethod()));
+                callSites.forEach(callSite ->
+                        expand(callGraph.getContainerOf(callSite)));
+            }
+        }
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt node) {
+        expandContainerOf(node);
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return getCFGOf(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return stmtToCFG.get(callSite).getSuccsOf(callSite);
+    }
+
+    /**
+     * @return the method containing given node. The node must belong to
+     * a CFG which has been built, i.e., it is obtained from this ICFG.
+     */
+    @Override
+    public JMethod getContainingMethodOf(Stmt node) {
+        return stmtToCFG.get(node).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt node) {
+        return node instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        return stmtToCFG.containsKey(node);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source).stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        return Views.toMappedSet(getInEdgesOf(node), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        return Views.toMappedSet(getOutEdgesOf(node), ICFGEdge::getTarget);
+    }
+
+    /**
+     * Enumerating the nodes needs the whole ICFG, thus this method expands
+     * all reachable methods in the call graph, and the laziness is lost.
+     * The clients which only care about the explored part should keep
+     * track of the nodes they reach instead.
+     */
+    @Override
+    public Set<Stmt> getNodes() {
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        methods.forEach(this::expand);
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
@@ -25,7 +25,13 @@ package pascal.taie.analysis;
 import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -33,6 +39,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 /**
  * Static utility methods for testing.
@@ -61,6 +69,35 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        List<String> args = buildArgs(main, classPath, id, opts);
+        // set up result processor
+        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
+        String file = getExpectedFile(classPath, main, id);
+        String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
+                ResultProcessor.ID, id, action, file);
+        Collections.addAll(args, "-a", processArg);
+        Main.main(args.toArray(new String[0]));
+        if (action.equals("compare")) {
+            Set<String> mismatches = World.get().getResult(ResultProcessor.ID);
+            Assert.assertTrue("Mismatches of analysis \"" + id + "\":\n" +
+                            String.join("\n", mismatches),
+                    mismatches.isEmpty());
+        }
+    }
+
+    /**
+     * Starts a dataflow analysis for a specific test case like
+     * {@link #test(String, String, String, String...)}, but returns
+     * its facts (see {@link #getFacts(String)}) instead of comparing
+     * them with the expected results.
+     */
+    public static Set<String> analyze(String main, String classPath, String id, String... opts) {
+        Main.main(buildArgs(main, classPath, id, opts).toArray(new String[0]));
+        return getFacts(id);
+    }
+
+    private static List<String> buildArgs(
+            String main, String classPath, String id, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -80,19 +117,45 @@ public final class Tests {
             Collections.addAll(args, "-a", id);
             Collections.addAll(args, opts);
         }
-        // set up result processor
-        String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
-        String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
-                ResultProcessor.ID, id, action, file);
-        Collections.addAll(args, "-a", processArg);
-        Main.main(args.toArray(new String[0]));
-        if (action.equals("compare")) {
-            Set<String> mismatches = World.get().getResult(ResultProcessor.ID);
-            Assert.assertTrue("Mismatches of analysis \"" + id + "\":\n" +
-                            String.join("\n", mismatches),
-                    mismatches.isEmpty());
-        }
+        return args;
+    }
+
+    /**
+     * @param id ID of a dataflow analysis on statements, which has been
+     *           executed in current world
+     * @return the IN and OUT facts of the analysis at the statements of
+     * the reachable methods, one string per statement, in sorted order.
+     */
+    public static Set<String> getFacts(String id) {
+        DataflowResult<Stmt, ?> result = World.get().getResult(id);
+        return getFacts(stmt -> "IN" + result.getInFact(stmt) +
+                " OUT" + result.getOutFact(stmt));
+    }
+
+    /**
+     * @param factOf the function that gives the fact at a statement
+     * @return the facts at the statements of the methods which are
+     * reachable in the call graph of current world, one string per
+     * statement, in sorted order.
+     */
+    public static Set<String> getFacts(Function<Stmt, ?> factOf) {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Set<String> facts = new TreeSet<>();
+        callGraph.reachableMethods().forEach(method -> {
+            for (Stmt stmt : method.getIR()) {
+                facts.add(method + " " + IRPrinter.toString(stmt) +
+                        " " + factOf.apply(stmt));
+            }
+        });
+        return facts;
+    }
+
+    /**
+     * Asserts that two sets of facts obtained by {@link #getFacts} are
+     * the same, and shows the differing statements otherwise.
+     */
+    public static void assertSameFacts(Set<String> expected, Set<String> actual) {
+        Assert.assertEquals(String.join("\n", expected), String.join("\n", actual));
     }
 
     public static void testPTA(String dir, String main, String... opts) {
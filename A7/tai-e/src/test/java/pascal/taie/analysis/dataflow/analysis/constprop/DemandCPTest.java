@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.inter.DemandCPSolver;
+import pascal.taie.analysis.dataflow.inter.DemandConstantPropagation;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the answers of {@link DemandCPSolver} with the results of
+ * the exhaustive {@link InterConstantPropagation}, and checks that
+ * a single query only visits the part of the ICFG it depends on.
+ */
+public class DemandCPTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    void run(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:true;pta:cspta",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta",
+                "-a", DemandConstantPropagation.ID + "=pta:cspta");
+    }
+
+    void test(String inputClass) {
+        run(inputClass);
+        DataflowResult<Stmt, CPFact> result =
+                World.get().getResult(InterConstantPropagation.ID);
+        DemandCPSolver solver = World.get().getResult(DemandConstantPropagation.ID);
+        // the exhaustive solver may update the IN fact
+        // with the def of LoadField, thus it is skipped
+        Set<String> expected = Tests.getFacts(stmt -> {
+            CPFact in = result.getInFact(stmt).copy();
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var var) {
+                    in.remove(var);
+                }
+            });
+            return in;
+        });
+        Set<String> actual = Tests.getFacts(stmt -> {
+            CPFact in = new CPFact();
+            for (Var var : getIR(stmt).getVars()) {
+                if (ConstantPropagation.canHoldInt(var) &&
+                        stmt.getDef().filter(var::equals).isEmpty()) {
+                    in.update(var, solver.valueOf(var, stmt));
+                }
+            }
+            return in;
+        });
+        Tests.assertSameFacts(expected, actual);
+    }
+
+    /**
+     * Queries the value of b at the end of Interprocedural2.main(), which
+     * only depends on Y.setG() and Y.getG(), thus the methods of X are
+     * not visited.
+     */
+    @Test
+    public void testVisitsOnDemand() {
+        run("Interprocedural2");
+        DemandCPSolver solver = World.get().getResult(DemandConstantPropagation.ID);
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        JMethod main = World.get().getMainMethod();
+        List<Stmt> stmts = main.getIR().getStmts();
+        Var b = main.getIR().getVars()
+                .stream()
+                .filter(var -> var.getName().equals("b"))
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals(Value.makeConstant(789),
+                solver.valueOf(b, stmts.get(stmts.size() - 1)));
+        Set<Stmt> visited = solver.getVisitedNodes();
+        long nodes = callGraph.reachableMethods()
+                .mapToLong(method -> method.getIR().getStmts().size())
+                .sum();
+        Assert.assertTrue(visited.size() + " of " + nodes + " nodes are visited",
+                visited.size() < nodes);
+        callGraph.reachableMethods()
+                .filter(method -> method.getDeclaringClass().getName()
+                        .equals("Interprocedural2$X"))
+                .forEach(method -> Assert.assertTrue(method.toString(),
+                        method.getIR().getStmts().stream().noneMatch(visited::contains)));
+    }
+
+    private static IR getIR(Stmt stmt) {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        return callGraph.getContainerOf(stmt).getIR();
+    }
+
+    @Test
+    public void testArray() {
+        test("Array");
+    }
+
+    @Test
+    public void testArrayInter2() {
+        test("ArrayInter2");
+    }
+
+    @Test
+    public void testArrayLoops() {
+        test("ArrayLoops");
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testMultiStores() {
+        test("MultiStores");
+    }
+
+    @Test
+    public void testInterprocedural2() {
+        test("Interprocedural2");
+    }
+
+    @Test
+    public void testObjSens() {
+        test("ObjSens");
+    }
+
+    @Test
+    public void testStaticField() {
+        test("StaticField");
+    }
+
+    @Test
+    public void testStaticFieldMultiStores() {
+        test("StaticFieldMultiStores");
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.inter.AbstractInterDataflowAnalysis;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests that the results stored by option "cache" are reused correctly.
+ */
+public class InterCPCacheTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    /**
+     * Two versions of the same programs: in v2, Incremental changes the value
+     * stored by set(), DeletedStore deletes the stores of set(), and
+     * DeletedCall deletes the call to c() in other().
+     */
+    private static final String INCREMENTAL_PATH = "src/test/resources/dataflow/constprop/incremental/";
+
+    private static final String OPTIONS = "edge-refine:false;alias-aware:true;pta:cspta";
+
+    void test(String inputClass, Path cache) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                OPTIONS + ";cache:" + cache,
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+    }
+
+    Set<String> analyze(String version, String options) {
+        return analyze("Incremental", version, options);
+    }
+
+    Set<String> analyze(String main, String version, String options) {
+        return Tests.analyze(main, INCREMENTAL_PATH + version,
+                InterConstantPropagation.ID, options,
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+    }
+
+    /** Stores the results in the first run and reuses them in the second run. */
+    void testRoundTrip(String inputClass) throws IOException {
+        Path cache = Files.createTempFile(inputClass, ".cache");
+        Files.delete(cache);
+        try {
+            test(inputClass, cache);
+            Assert.assertTrue(Files.exists(cache));
+            List<String> stored = Files.readAllLines(cache);
+            test(inputClass, cache);
+            // the reused facts are stored back unchanged
+            Assert.assertEquals(stored.stream().sorted().toList(),
+                    Files.readAllLines(cache).stream().sorted().toList());
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+
+    @Test
+    public void testArrayLoops() throws IOException {
+        testRoundTrip("ArrayLoops");
+    }
+
+    @Test
+    public void testInterprocedural2() throws IOException {
+        testRoundTrip("Interprocedural2");
+    }
+
+    @Test
+    public void testStaticFieldMultiStores() throws IOException {
+        testRoundTrip("StaticFieldMultiStores");
+    }
+
+    /**
+     * Changes the value stored by set() between two runs, and checks that
+     * only the facts depending on the store are recomputed, and the results
+     * are the same as the ones computed from scratch.
+     */
+    @Test
+    public void testChangedStore() throws IOException {
+        Path cache = Files.createTempFile("Incremental", ".cache");
+        Files.delete(cache);
+        try {
+            analyze("v1", OPTIONS + ";cache:" + cache);
+            Set<String> incremental = analyze("v2", OPTIONS + ";cache:" + cache);
+            DataflowResult<Stmt, CPFact> reused = World.get().getResult(
+                    InterConstantPropagation.ID + AbstractInterDataflowAnalysis.REUSED_SUFFIX);
+            JMethod main = World.get().getMainMethod();
+            JClass jclass = main.getDeclaringClass();
+            // the facts of the methods which do not depend on set() are reused
+            for (String name : List.of("one", "two")) {
+                jclass.getDeclaredMethod(name).getIR().forEach(stmt ->
+                        Assert.assertNotNull(name + " " + stmt, reused.getInFact(stmt)));
+            }
+            jclass.getDeclaredMethod("set").getIR().forEach(stmt ->
+                    Assert.assertNull("set " + stmt, reused.getInFact(stmt)));
+            // in main(), only the facts after the call to set() are recomputed
+            List<Stmt> stmts = main.getIR().getStmts();
+            int call = stmts.indexOf(stmts.stream()
+                    .filter(stmt -> stmt instanceof Invoke invoke &&
+                            invoke.getMethodRef().getName().equals("set"))
+                    .findFirst()
+                    .orElseThrow());
+            for (int i = 0; i < stmts.size(); ++i) {
+                Assert.assertEquals("main " + stmts.get(i),
+                        i <= call, reused.getInFact(stmts.get(i)) != null);
+            }
+            Tests.assertSameFacts(analyze("v2", OPTIONS), incremental);
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+
+    /**
+     * Analyzes v1 and then v2 of given program with the cache, and checks
+     * that the results of v2 are the same as the ones computed from scratch.
+     */
+    void testChangedProgram(String main) throws IOException {
+        Path cache = Files.createTempFile(main, ".cache");
+        Files.delete(cache);
+        try {
+            analyze(main, "v1", OPTIONS + ";cache:" + cache);
+            Set<String> incremental = analyze(main, "v2", OPTIONS + ";cache:" + cache);
+            Tests.assertSameFacts(analyze(main, "v2", OPTIONS), incremental);
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+
+    /** The loads in get() must not keep the values of the deleted stores. */
+    @Test
+    public void testDeletedStore() throws IOException {
+        testChangedProgram("DeletedStore");
+    }
+
+    /** The parameter of c() must not keep the argument of the deleted call. */
+    @Test
+    public void testDeletedCall() throws IOException {
+        testChangedProgram("DeletedCall");
+    }
+
+    /** The broken cache file is ignored, and the results are solved from scratch. */
+    @Test
+    public void testBrokenCache() throws IOException {
+        Path cache = Files.createTempFile("Broken", ".cache");
+        try {
+            Files.writeString(cache, "<Main: void main(java.lang.String[])>\tx\t2\n1:y=1\n");
+            test("Interprocedural2", cache);
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+
+    /** The facts whose variables do not match the IR are rejected. */
+    @Test
+    public void testMismatchedVars() throws IOException {
+        Path cache = Files.createTempFile("Mismatched", ".cache");
+        try {
+            test("Interprocedural2", cache);
+            List<String> lines = Files.readAllLines(cache).stream()
+                    .map(line -> line.replaceAll("(\\d+):([^=,\\t]+)=", "$1:renamed$2="))
+                    .toList();
+            Files.write(cache, lines);
+            test("Interprocedural2", cache);
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.inter.AbstractInterDataflowAnalysis;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the alias-aware inter-procedural constant propagation on the lazily
+ * constructed ICFG, and checks that the results are the same as the ones
+ * on the whole ICFG.
+ */
+public class InterCPLazyTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    private static final String OPTIONS = "edge-refine:false;alias-aware:true;pta:cspta";
+
+    void test(String inputClass) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                OPTIONS + ";lazy-icfg:true",
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+    }
+
+    Set<String> analyze(String inputClass, String options) {
+        return Tests.analyze(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                options, "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+    }
+
+    /**
+     * The catch block of LazyUnreached.main() is unreachable in the CFG, thus
+     * unreached(), which is reachable in the call graph, is never expanded,
+     * and the facts of the reached nodes are the same as the ones of the
+     * whole ICFG.
+     */
+    @Test
+    public void testUnreached() {
+        Set<String> eager = analyze("LazyUnreached", OPTIONS);
+        Set<String> lazy = analyze("LazyUnreached", OPTIONS + ";lazy-icfg:true");
+        DataflowResult<Stmt, CPFact> result = World.get().getResult(InterConstantPropagation.ID);
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Set<JMethod> expanded = callGraph.reachableMethods()
+                .filter(method -> method.getIR()
+                        .stmts()
+                        .anyMatch(stmt -> result.getInFact(stmt) != null))
+                .collect(Collectors.toSet());
+        Assert.assertTrue(expanded + " of " + callGraph.getNumberOfMethods(),
+                expanded.size() < callGraph.getNumberOfMethods());
+        Assert.assertFalse(expanded.stream()
+                .anyMatch(method -> method.getName().equals("unreached")));
+        // the unreached nodes have no facts in the lazy result
+        Set<String> reached = lazy.stream()
+                .filter(fact -> !fact.endsWith(" INnull OUTnull"))
+                .collect(Collectors.toSet());
+        reached.removeAll(eager);
+        Assert.assertTrue("Mismatches:\n" + String.join("\n", reached), reached.isEmpty());
+    }
+
+    /**
+     * Runs LazyUnreached on the lazy ICFG twice with option "cache". The
+     * unreached methods are recorded as absent instead of being built, thus
+     * the CFG of unreachedCallee(), which is only called by unreached(), is
+     * never built, and the second run reuses the facts of the reached nodes.
+     */
+    @Test
+    public void testUnreachedWithCache() throws IOException {
+        Path cache = Files.createTempFile("LazyUnreached", ".cache");
+        Files.delete(cache);
+        String options = OPTIONS + ";lazy-icfg:true;cache:" + cache;
+        try {
+            Set<String> lazy = analyze("LazyUnreached", options);
+            assertCFGNotBuilt("unreachedCallee");
+            Set<String> incremental = analyze("LazyUnreached", options);
+            assertCFGNotBuilt("unreachedCallee");
+            // nothing is changed, thus the facts of all reached nodes are reused
+            DataflowResult<Stmt, CPFact> result = World.get().getResult(
+                    InterConstantPropagation.ID);
+            DataflowResult<Stmt, CPFact> reused = World.get().getResult(
+                    InterConstantPropagation.ID + AbstractInterDataflowAnalysis.REUSED_SUFFIX);
+            World.get().getMainMethod().getIR().forEach(stmt ->
+                    Assert.assertEquals("main " + stmt, result.getInFact(stmt) != null,
+                            reused.getInFact(stmt) != null));
+            Tests.assertSameFacts(lazy, incremental);
+        } finally {
+            Files.deleteIfExists(cache);
+        }
+    }
+
+    private static void assertCFGNotBuilt(String methodName) {
+        JMethod method = World.get().getMainMethod()
+                .getDeclaringClass()
+                .getDeclaredMethod(methodName);
+        Assert.assertNull(method.getIR().getResult(CFGBuilder.ID));
+    }
+
+    /**
+     * The only store of b.f is in unreached(), which is called in the catch
+     * block of LazyUnreachedStore.main(). The whole ICFG transfers the store,
+     * thus the load of b.f sees the constant, while the lazy ICFG never
+     * reaches the store, thus the load is UNDEF.
+     */
+    @Test
+    public void testUnreachedStore() {
+        analyze("LazyUnreachedStore", OPTIONS);
+        Assert.assertEquals(Value.makeConstant(2), getLoadedValue());
+        analyze("LazyUnreachedStore", OPTIONS + ";lazy-icfg:true");
+        Assert.assertEquals(Value.getUndef(), getLoadedValue());
+    }
+
+    /**
+     * @return the value of the LoadField in main method after it.
+     */
+    private static Value getLoadedValue() {
+        DataflowResult<Stmt, CPFact> result = World.get().getResult(InterConstantPropagation.ID);
+        LoadField load = World.get().getMainMethod().getIR()
+                .stmts()
+                .filter(stmt -> stmt instanceof LoadField)
+                .map(stmt -> (LoadField) stmt)
+                .findFirst()
+                .orElseThrow();
+        return result.getOutFact(load).get(load.getLValue());
+    }
+
+    @Test
+    public void testArray() {
+        test("Array");
+    }
+
+    @Test
+    public void testArrayInter2() {
+        test("ArrayInter2");
+    }
+
+    @Test
+    public void testArrayLoops() {
+        test("ArrayLoops");
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testMultiStores() {
+        test("MultiStores");
+    }
+
+    @Test
+    public void testInterprocedural2() {
+        test("Interprocedural2");
+    }
+
+    @Test
+    public void testObjSens() {
+        test("ObjSens");
+    }
+
+    @Test
+    public void testStaticField() {
+        test("StaticField");
+    }
+
+    @Test
+    public void testStaticFieldMultiStores() {
+        test("StaticFieldMultiStores");
+    }
+}
@@ -0,0 +1,25 @@
+class LazyUnreached {
+
+    public static void main(String[] args) {
+        int x = 0;
+        try {
+            x = 1;
+        } catch (RuntimeException e) {
+            unreached();
+        }
+        int y = reached(x);
+    }
+
+    static int reached(int x) {
+        return x + 1;
+    }
+
+    static void unreached() {
+        int z = 3;
+        unreachedCallee();
+    }
+
+    static void unreachedCallee() {
+        int w = 4;
+    }
+}
@@ -0,0 +1,21 @@
+class LazyUnreachedStore {
+
+    public static void main(String[] args) {
+        LazyBox b = new LazyBox();
+        try {
+            b.g = 1;
+        } catch (RuntimeException e) {
+            unreached(b);
+        }
+        int y = b.f;
+    }
+
+    static void unreached(LazyBox b) {
+        b.f = 2;
+    }
+}
+
+class LazyBox {
+    int f;
+    int g;
+}
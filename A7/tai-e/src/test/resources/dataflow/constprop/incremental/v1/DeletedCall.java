@@ -0,0 +1,15 @@
+class DeletedCall {
+
+    public static void main(String[] args) {
+        int a = c(5);
+        other();
+    }
+
+    static void other() {
+        c(6);
+    }
+
+    static int c(int x) {
+        return x;
+    }
+}
@@ -0,0 +1,23 @@
+class DeletedStore {
+
+    static int f;
+
+    int g;
+
+    public static void main(String[] args) {
+        DeletedStore o = new DeletedStore();
+        get(o);
+        set(o);
+    }
+
+    static int get(DeletedStore o) {
+        int x = f;
+        int y = o.g;
+        return x + y;
+    }
+
+    static void set(DeletedStore o) {
+        f = 10;
+        o.g = 20;
+    }
+}
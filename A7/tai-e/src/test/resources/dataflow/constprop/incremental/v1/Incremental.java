@@ -0,0 +1,25 @@
+class Incremental {
+
+    static int f;
+
+    public static void main(String[] args) {
+        int a = one();
+        int b = two();
+        int c = a + b;
+        set();
+        int d = f;
+        int e = c + d;
+    }
+
+    static int one() {
+        return 1;
+    }
+
+    static int two() {
+        return 2;
+    }
+
+    static void set() {
+        f = 10;
+    }
+}
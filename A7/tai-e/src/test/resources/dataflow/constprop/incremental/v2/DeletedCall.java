@@ -0,0 +1,14 @@
+class DeletedCall {
+
+    public static void main(String[] args) {
+        int a = c(5);
+        other();
+    }
+
+    static void other() {
+    }
+
+    static int c(int x) {
+        return x;
+    }
+}
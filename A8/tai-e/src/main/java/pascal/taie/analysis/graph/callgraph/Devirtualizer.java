@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CHA-based devirtualization of call sites.
+ * <p>
+ * When a method becomes reachable, {@link #process(JMethod)} marks the
+ * instance call sites in it which CHA proves monomorphic, i.e., all
+ * possible receiver classes dispatch to the same target, e.g., the receiver
+ * class is final, or the method is not overridden by any subclass, or the
+ * declaring interface has a single implementor. The pointer analysis binds
+ * such call sites to {@link #getUniqueTarget(Invoke)} once, and then lets
+ * the receiver objects flow to the target without dispatching on the type
+ * of each receiver object.
+ */
+public class Devirtualizer {
+
+    /** Marks the method references which are not monomorphic. */
+    private static final Object POLYMORPHIC = new Object();
+
+    private final ClassHierarchy hierarchy;
+
+    private final Set<JMethod> processedMethods = Sets.newSet();
+
+    private final Map<Invoke, JMethod> uniqueTargets = Maps.newMap();
+
+    /**
+     * Memoized results of the method references, which are shared
+     * by the call sites of the same method reference.
+     */
+    private final Map<MethodRef, Object> results = Maps.newMap();
+
+    public Devirtualizer(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+    }
+
+    /**
+     * Marks the monomorphic instance call sites in given method.
+     */
+    public void process(JMethod method) {
+        if (method.isAbstract() || !processedMethods.add(method)) {
+            return;
+        }
+        for (Stmt stmt : method.getIR().getStmts()) {
+            if (stmt instanceof Invoke invoke && !invoke.isStatic()) {
+                JMethod target = computeUniqueTarget(invoke);
+                if (target != null) {
+                    uniqueTargets.put(invoke, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the unique target of given call site if it is marked as
+     * monomorphic, otherwise null.
+     */
+    public @Nullable JMethod getUniqueTarget(Invoke callSite) {
+        return uniqueTargets.get(callSite);
+    }
+
+    private @Nullable JMethod computeUniqueTarget(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        if (callSite.isSpecial()) {
+            return methodRef.resolveNullable();
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            Object result = results.computeIfAbsent(methodRef, ref -> {
+                JMethod target = findUniqueTarget(ref, callSite.isInterface());
+                return target != null ? target : POLYMORPHIC;
+            });
+            return result != POLYMORPHIC ? (JMethod) result : null;
+        } else { // dynamic call
+            return null;
+        }
+    }
+
+    /**
+     * Traverses the subtypes of the declaring class of given method reference,
+     * and stops as soon as two different targets are found.
+     *
+     * @return the unique target dispatched on all instantiable subtypes,
+     * or null if there are multiple (or no) targets.
+     */
+    private @Nullable JMethod findUniqueTarget(MethodRef methodRef, boolean isInterface) {
+        JClass declaringClass = methodRef.getDeclaringClass();
+        JMethod target = null;
+        if (isInterface) {
+            // arrays may be the receivers of the interface calls
+            // (e.g., on Cloneable), and they dispatch on java.lang.Object
+            target = hierarchy.dispatch(
+                    hierarchy.getJREClass(ClassNames.OBJECT), methodRef);
+        }
+        Set<JClass> visited = Sets.newSet();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(declaringClass);
+        while (!stack.isEmpty()) {
+            JClass jclass = stack.pop();
+            if (!visited.add(jclass)) {
+                continue;
+            }
+            if (!jclass.isInterface() && !jclass.isAbstract()) {
+                JMethod dispatched = hierarchy.dispatch(jclass, methodRef);
+                if (dispatched != null) {
+                    if (target == null) {
+                        target = dispatched;
+                    } else if (!target.equals(dispatched)) {
+                        return null;
+                    }
+                }
+            }
+            if (jclass.isInterface()) {
+                hierarchy.getDirectSubinterfacesOf(jclass).forEach(stack::push);
+                hierarchy.getDirectImplementorsOf(jclass).forEach(stack::push);
+            } else if (!jclass.isFinal()) {
+                hierarchy.getDirectSubclassesOf(jclass).forEach(stack::push);
+            }
+        }
+        return target;
+    }
+}
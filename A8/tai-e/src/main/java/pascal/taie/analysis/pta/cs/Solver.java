@@ -27,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Devirtualizer;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
@@ -79,6 +80,9 @@ public class Solver {
 
     private PointerAnalysisResult result;
 
+    /** Marks the monomorphic call sites, null if devirtualization is disabled. */
+    private Devirtualizer devirtualizer;
+
     Solver(AnalysisOptions options, HeapModel heapModel,
             ContextSelector contextSelector
     ) {
@@ -112,6 +116,8 @@ public class Solver {
 
     private void initialize() {
         csManager = new MapBasedCSManager();
+        devirtualizer = options.getBooleanOrDefault("devirtualize", true) ?
+                new Devirtualizer(World.get().getClassHierarchy()) : null;
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
@@ -131,6 +137,9 @@ public class Solver {
         if (!callGraph.addReachableMethod(csMethod)) {
             return;
         }
+        if (devirtualizer != null) {
+            devirtualizer.process(csMethod.getMethod());
+        }
         StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
         // Process New, Assign, static (LoadField, storeField, invoke) statements.
         for (Stmt stmt : csMethod.getMethod().getIR().getStmts()) {
@@ -432,6 +441,13 @@ public class Solver {
      * @return the resolved callee.
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
+        // monomorphic call sites need no dispatch on the receiver object,
+        // the callee context is still selected on each receiver object
+        JMethod uniqueTarget = devirtualizer != null ?
+                devirtualizer.getUniqueTarget(callSite) : null;
+        if (uniqueTarget != null) {
+            return uniqueTarget;
+        }
         Type type = recv != null ? recv.getObject().getType() : null;
         return CallGraphs.resolveCallee(type, callSite);
     }